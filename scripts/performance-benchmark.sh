@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Mede o efeito de cada configuração do profile performance nos endpoints de listagem e de estoque.
+#
+# Roda o teste de carga (mvn -Ploadtest test) sem o profile, com o profile completo e com o profile
+# menos uma configuração por vez, e imprime RPS e p99 por endpoint de cada execução.
+#
+# Uso: scripts/performance-benchmark.sh [duration-seconds]
+# Argumentos extras para o Maven podem ir em MAVEN_ARGS (ex.: MAVEN_ARGS=-o para rodar offline).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+DURATION=${1:-20}
+OUTPUT=target/loadtest/benchmark
+H2_URL="jdbc:h2:mem:beerstock;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+ENDPOINTS='GET /api/v1/foods"|PATCH /api/v1/foods/\{id\}/(in|de)crement"'
+
+mkdir -p "$OUTPUT"
+
+run() {
+	local label=$1
+	shift
+	mvn -B -q -Ploadtest test ${MAVEN_ARGS:-} -Dmaven.test.failure.ignore=true \
+		-Dloadtest.durationSeconds="$DURATION" -Ddogfood.performance.strict=false "$@" > "$OUTPUT/$label.log" 2>&1
+	cp target/loadtest/report.json "$OUTPUT/$label.json"
+	awk -v label="$label" -v endpoints="$ENDPOINTS" '
+		/^    "/ { endpoint = $0; sub(/^ *"/, "", endpoint); sub(/" : \{.*/, "", endpoint); wanted = ($0 ~ endpoints) }
+		wanted && /"rps"/ { rps = $3; sub(/,/, "", rps) }
+		wanted && /"p99Millis"/ { p99 = $3; sub(/,/, "", p99); printf "%-22s %-36s rps=%8.1f  p99=%8.2f ms\n", label, endpoint, rps, p99 }
+	' "$OUTPUT/$label.json"
+}
+
+run "default"
+run "performance" -Dspring.profiles.active=performance
+run "open-in-view" -Dspring.profiles.active=performance -Dspring.jpa.open-in-view=true
+run "no-query-cache" -Dspring.profiles.active=performance -Dspring.datasource.url="$H2_URL"
+run "elastic-pool" -Dspring.profiles.active=performance -Dspring.datasource.hikari.minimum-idle=2
+run "no-jdbc-batch" -Dspring.profiles.active=performance -Dspring.jpa.properties.hibernate.jdbc.batch_size=1
+run "no-order-updates" -Dspring.profiles.active=performance \
+	-Dspring.jpa.properties.hibernate.order_updates=false -Dspring.jpa.properties.hibernate.order_inserts=false
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Mede time-to-first-request e RSS da aplicação, com e sem o arquivo AppCDS.
+#
+# Uso: scripts/startup-benchmark.sh [runs]
+# Requer o build do profile cds: mvn -Pcds package -DskipTests
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-3}
+PORT=${PORT:-18080}
+ARCHIVE=target/dogfoodapi.jsa
+CLASSPATH="target/dogfoodapi-0.0.1-SNAPSHOT-cds.jar:$(cat target/cds-classpath.txt)"
+URL="http://localhost:${PORT}/api/v1/foods"
+
+if [ ! -f "$ARCHIVE" ]; then
+	echo "Archive $ARCHIVE not found, run: mvn -Pcds package -DskipTests" >&2
+	exit 1
+fi
+
+measure() {
+	local label=$1
+	shift
+	local start pid elapsed rss
+	start=$(date +%s%N)
+	java "$@" -classpath "$CLASSPATH" com.bootcamp.dogfoodapi.DogfoodApiApplication \
+		--spring.profiles.active=prod --server.port="$PORT" > /dev/null 2>&1 &
+	pid=$!
+	until curl -sf -o /dev/null "$URL"; do
+		sleep 0.01
+	done
+	elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+	rss=$(awk '/VmRSS/ {print $2}' "/proc/${pid}/status")
+	kill "$pid"
+	wait "$pid" 2> /dev/null || true
+	printf '%-10s time-to-first-request=%6d ms  rss=%7d kB\n' "$label" "$elapsed" "$rss"
+}
+
+for run in $(seq "$RUNS"); do
+	measure "default"
+	measure "appcds" -XX:SharedArchiveFile="$ARCHIVE"
+done
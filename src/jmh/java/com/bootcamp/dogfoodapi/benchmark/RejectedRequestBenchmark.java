@@ -0,0 +1,108 @@
+package com.bootcamp.dogfoodapi.benchmark;
+
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.service.FoodService;
+import com.bootcamp.dogfoodapi.service.StockCommitCoalescer;
+import com.bootcamp.dogfoodapi.service.StockHolds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Custo (tempo e bytes alocados) de uma requisição de estoque recusada.
+ *
+ *  Rodar com o profiler de GC: mvn -Pjmh test. A coluna gc.alloc.rate.norm é a alocação por
+ *  operação. LegacyStockExceededException reproduz a exceção antiga (String.format e stack trace
+ *  no construtor); aqui a pilha é rasa, então o custo real dela em uma requisição HTTP é maior.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RejectedRequestBenchmark {
+
+	private static final Long SOLD_OUT_ID = 1L;
+
+	private FoodService foodService;
+
+	@Setup
+	public void setUp() {
+		Food soldOut = new Food(SOLD_OUT_ID, "Sold Out", "Mars", 50, 0, FoodType.PREMIUM, 0, false, null);
+		FoodRepository foodRepository = (FoodRepository) Proxy.newProxyInstance(FoodRepository.class.getClassLoader(),
+				new Class<?>[]{FoodRepository.class},
+				(proxy, method, args) -> "findForUpdateById".equals(method.getName()) && SOLD_OUT_ID.equals(args[0])
+						? Optional.of(soldOut) : Optional.empty());
+		foodService = new FoodService(foodRepository, new StockCommitCoalescer(null, false, 0), null, null, new StockHolds(),
+				event -> { }, TransactionOperations.withoutTransaction());
+	}
+
+	@Benchmark
+	public Object legacyException() {
+		try {
+			throwLegacy();
+			return null;
+		} catch (LegacyStockExceededException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object stacklessException() {
+		try {
+			throwStackless();
+			return null;
+		} catch (FoodStockExceededException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object decrementSoldOutWithException() throws FoodNotFoundException {
+		try {
+			return foodService.decrement(SOLD_OUT_ID, 1);
+		} catch (FoodStockExceededException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public StockMutationResult decrementSoldOutWithResult() {
+		return foodService.tryDecrement(SOLD_OUT_ID, 1);
+	}
+
+	@Benchmark
+	public StockMutationResult decrementUnknownWithResult() {
+		return foodService.tryDecrement(2L, 1);
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private static void throwLegacy() throws LegacyStockExceededException {
+		throw new LegacyStockExceededException(SOLD_OUT_ID, 1);
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private static void throwStackless() throws FoodStockExceededException {
+		throw new FoodStockExceededException(SOLD_OUT_ID, 1);
+	}
+
+	private static class LegacyStockExceededException extends Exception {
+
+		LegacyStockExceededException(Long id, int quantity) {
+			super(String.format("Foods with %s ID to increment informed exceeds the max stock capacity: %s", id, quantity));
+		}
+	}
+}
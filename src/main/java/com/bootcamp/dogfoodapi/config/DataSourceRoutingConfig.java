@@ -0,0 +1,58 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.bootcamp.dogfoodapi.config.ReadWriteRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ *  Dois pools, primário (spring.datasource.*) e réplica (dogfood.datasource.replica.*),
+ *  atrás de um único DataSource que escolhe o pool pela transação corrente.
+ *
+ *  Só é ligado com dogfood.datasource.routing.enabled=true; sem isso o Spring Boot
+ *  configura o DataSource único de sempre.
+ * */
+@Configuration
+@ConditionalOnProperty(value = "dogfood.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	public ReadWriteDataSources readWriteDataSources(DataSourceProperties dataSourceProperties, Environment environment,
+													 @Value("${dogfood.datasource.replica.url}") String replicaUrl,
+													 @Value("${dogfood.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+													 @Value("${dogfood.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword) {
+		HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+		HikariDataSource replica = dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.url(replicaUrl)
+				.username(replicaUsername)
+				.password(replicaPassword)
+				.build();
+		Binder.get(environment).bind("dogfood.datasource.replica.hikari", Bindable.ofInstance(replica));
+		return new ReadWriteDataSources(primary, replica);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReadWriteDataSources readWriteDataSources) {
+		ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+		routingDataSource.setTargetDataSources(Map.of(
+				Route.PRIMARY, readWriteDataSources.getPrimary(),
+				Route.REPLICA, readWriteDataSources.getReplica()));
+		routingDataSource.setDefaultTargetDataSource(readWriteDataSources.getPrimary());
+		routingDataSource.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+}
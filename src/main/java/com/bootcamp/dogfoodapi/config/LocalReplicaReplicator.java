@@ -0,0 +1,104 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Replicação de mentira para rodar o roteamento localmente com dois H2 em memória.
+ *
+ *  No startup copia o banco primário inteiro para a réplica (SCRIPT do H2) e, depois de cada
+ *  commit que gera um FoodEvent, copia a linha do food e as do seu estoque por local, com o atraso
+ *  de dogfood.datasource.replica.lag-millis. Com uma réplica de verdade este bean fica desligado.
+ * */
+@Slf4j
+@Lazy(false)
+@Component
+@ConditionalOnProperty(prefix = "dogfood.datasource", name = {"routing.enabled", "replica.local-replication"}, havingValue = "true")
+public class LocalReplicaReplicator {
+
+	private static final String FOOD_TABLE = "FOOD";
+	private static final String FOOD_STOCK_TABLE = "FOOD_STOCK";
+
+	private final EntityManagerFactory entityManagerFactory;
+	private final JdbcTemplate primary;
+	private final JdbcTemplate replica;
+	private final long lagMillis;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "replica-replicator");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@Autowired
+	public LocalReplicaReplicator(EntityManagerFactory entityManagerFactory, ReadWriteDataSources readWriteDataSources,
+								  @Value("${dogfood.datasource.replica.lag-millis:0}") long lagMillis) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.primary = new JdbcTemplate(readWriteDataSources.getPrimary());
+		this.replica = new JdbcTemplate(readWriteDataSources.getReplica());
+		this.lagMillis = lagMillis;
+	}
+
+	@PostConstruct
+	public void copySnapshot() {
+		// O JPA pode subir em background; o metamodel só fica disponível depois de o Hibernate criar o schema.
+		entityManagerFactory.getMetamodel();
+		List<String> statements = primary.queryForList("SCRIPT", String.class);
+		replica.execute("DROP ALL OBJECTS");
+		statements.stream()
+				.filter(statement -> !statement.startsWith("--"))
+				.forEach(replica::execute);
+		log.info("Replica initialized with {} statements from the primary", statements.size());
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFoodEvent(FoodEvent event) {
+		Long id = event.getFood().getId();
+		if (lagMillis <= 0) {
+			replicate(id);
+		} else {
+			executor.schedule(() -> replicate(id), lagMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	void replicate(Long id) {
+		List<Map<String, Object>> rows = primary.queryForList("SELECT * FROM " + FOOD_TABLE + " WHERE ID = ?", id);
+		if (rows.isEmpty()) {
+			replica.update("DELETE FROM " + FOOD_STOCK_TABLE + " WHERE FOOD_ID = ?", id);
+			replica.update("DELETE FROM " + FOOD_TABLE + " WHERE ID = ?", id);
+			return;
+		}
+		merge(FOOD_TABLE, rows.get(0));
+		replica.update("DELETE FROM " + FOOD_STOCK_TABLE + " WHERE FOOD_ID = ?", id);
+		primary.queryForList("SELECT * FROM " + FOOD_STOCK_TABLE + " WHERE FOOD_ID = ?", id)
+				.forEach(row -> merge(FOOD_STOCK_TABLE, row));
+	}
+
+	private void merge(String table, Map<String, Object> row) {
+		String columns = String.join(", ", row.keySet());
+		String placeholders = String.join(", ", Collections.nCopies(row.size(), "?"));
+		replica.update("MERGE INTO " + table + " (" + columns + ") KEY (ID) VALUES (" + placeholders + ")",
+				row.values().toArray());
+	}
+}
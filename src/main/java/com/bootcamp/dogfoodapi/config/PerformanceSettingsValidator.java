@@ -0,0 +1,102 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  Confere no startup do profile "performance" se as configurações efetivas são as do profile:
+ *  pool fixo, cache de statements do H2, batching e ordenação do Hibernate e open-in-view desligado.
+ *
+ *  Com dogfood.performance.strict=true a aplicação não sobe se algo estiver diferente;
+ *  com false só loga, o que permite medir o efeito de cada configuração isoladamente.
+ * */
+@Slf4j
+@Component
+@Profile("performance")
+public class PerformanceSettingsValidator implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final String BATCH_SIZE = "hibernate.jdbc.batch_size";
+	private static final String ORDER_INSERTS = "hibernate.order_inserts";
+	private static final String ORDER_UPDATES = "hibernate.order_updates";
+	private static final String QUERY_CACHE_SIZE = "QUERY_CACHE_SIZE";
+
+	private final DataSource dataSource;
+	private final EntityManagerFactory entityManagerFactory;
+	private final ListableBeanFactory beanFactory;
+	private final boolean strict;
+
+	@Autowired
+	public PerformanceSettingsValidator(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+										ListableBeanFactory beanFactory,
+										@Value("${dogfood.performance.strict:true}") boolean strict) {
+		this.dataSource = dataSource;
+		this.entityManagerFactory = entityManagerFactory;
+		this.beanFactory = beanFactory;
+		this.strict = strict;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		List<String> problems = validate();
+		if (problems.isEmpty()) {
+			log.info("Performance profile settings validated");
+		} else if (strict) {
+			throw new IllegalStateException("Performance profile is misconfigured: " + String.join("; ", problems));
+		} else {
+			problems.forEach(problem -> log.warn("Performance profile: {}", problem));
+		}
+	}
+
+	public List<String> validate() {
+		List<String> problems = new ArrayList<>();
+		validatePool(problems);
+		Map<String, Object> jpaProperties = entityManagerFactory.getProperties();
+		int batchSize = Integer.parseInt(String.valueOf(jpaProperties.getOrDefault(BATCH_SIZE, "1")));
+		if (batchSize <= 1) {
+			problems.add(BATCH_SIZE + " is " + batchSize + ", JDBC batching is disabled");
+		}
+		if (!Boolean.parseBoolean(String.valueOf(jpaProperties.get(ORDER_INSERTS)))) {
+			problems.add(ORDER_INSERTS + " is not enabled");
+		}
+		if (!Boolean.parseBoolean(String.valueOf(jpaProperties.get(ORDER_UPDATES)))) {
+			problems.add(ORDER_UPDATES + " is not enabled");
+		}
+		if (beanFactory.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length > 0) {
+			problems.add("open-in-view is enabled");
+		}
+		return problems;
+	}
+
+	private void validatePool(List<String> problems) {
+		HikariDataSource hikariDataSource;
+		try {
+			hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+		} catch (SQLException e) {
+			problems.add("DataSource is not a HikariCP pool");
+			return;
+		}
+		if (hikariDataSource.getMinimumIdle() != hikariDataSource.getMaximumPoolSize()) {
+			problems.add(String.format("pool is not fixed size (minimum-idle %d, maximum-pool-size %d)",
+					hikariDataSource.getMinimumIdle(), hikariDataSource.getMaximumPoolSize()));
+		}
+		String jdbcUrl = hikariDataSource.getJdbcUrl();
+		if (jdbcUrl != null && jdbcUrl.startsWith("jdbc:h2:") && !jdbcUrl.toUpperCase().contains(QUERY_CACHE_SIZE)) {
+			problems.add("H2 URL does not set " + QUERY_CACHE_SIZE + ", prepared statements use the default cache of 8");
+		}
+	}
+}
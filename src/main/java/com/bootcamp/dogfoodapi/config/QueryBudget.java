@@ -0,0 +1,19 @@
+package com.bootcamp.dogfoodapi.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ *  Número máximo de statements SQL que uma requisição ao endpoint pode executar.
+ *  Verificado pelo QueryBudgetInterceptor em runtime e pelos testes de orçamento de queries.
+ * */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+	int value();
+}
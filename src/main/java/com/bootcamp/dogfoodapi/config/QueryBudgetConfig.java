@@ -0,0 +1,47 @@
+package com.bootcamp.dogfoodapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ *  Contagem de statements SQL por requisição: o DataSource é embrulhado num QueryCountingDataSource,
+ *  que conta cada statement executado, e o interceptor compara com o @QueryBudget do endpoint (ou
+ *  com dogfood.query-budget.default-budget, -1 para endpoints sem orçamento). Desligado com
+ *  dogfood.query-budget.enabled=false.
+ * */
+@Configuration
+@ConditionalOnProperty(value = "dogfood.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+	private final int defaultBudget;
+
+	public QueryBudgetConfig(@Value("${dogfood.query-budget.default-budget:-1}") int defaultBudget) {
+		this.defaultBudget = defaultBudget;
+	}
+
+	@Bean
+	public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource && !(bean instanceof QueryCountingDataSource)) {
+					return new QueryCountingDataSource((DataSource) bean);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new QueryBudgetInterceptor(defaultBudget)).addPathPatterns("/api/**");
+	}
+}
@@ -0,0 +1,56 @@
+package com.bootcamp.dogfoodapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ *  Conta os statements SQL de cada requisição e loga as que passam do @QueryBudget do endpoint.
+ *
+ *  A contagem e o orçamento ficam nos atributos da requisição para os testes poderem verificá-los.
+ * */
+@Slf4j
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+	public static final String QUERY_COUNT_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".COUNT";
+	public static final String QUERY_BUDGET_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".BUDGET";
+
+	private final int defaultBudget;
+
+	public QueryBudgetInterceptor(int defaultBudget) {
+		this.defaultBudget = defaultBudget;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		QueryCounter.start();
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		int count = QueryCounter.stop();
+		int budget = budgetOf(handler);
+		request.setAttribute(QUERY_COUNT_ATTRIBUTE, count);
+		if (budget < 0) {
+			return;
+		}
+		request.setAttribute(QUERY_BUDGET_ATTRIBUTE, budget);
+		if (count > budget) {
+			log.warn("{} {} executed {} SQL statements, over its budget of {}", request.getMethod(), request.getRequestURI(), count, budget);
+		}
+	}
+
+	private int budgetOf(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			QueryBudget queryBudget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+			if (queryBudget != null) {
+				return queryBudget.value();
+			}
+		}
+		return defaultBudget;
+	}
+}
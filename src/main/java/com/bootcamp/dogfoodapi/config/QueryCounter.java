@@ -0,0 +1,39 @@
+package com.bootcamp.dogfoodapi.config;
+
+/**
+ *  Contador de statements SQL da thread corrente, alimentado pelo QueryCountingDataSource.
+ *
+ *  Só conta entre start e stop; fora disso (jobs agendados, threads do pool) o increment não faz nada.
+ *  Por ser da thread, o que a requisição entrega para outra thread não entra na conta dela: o lote
+ *  do group commit (dogfood.coalescing.enabled) roda na thread da requisição que virou líder e
+ *  conta para ela, e as mutações da fila assíncrona rodam nos consumidores e não contam para ninguém.
+ * */
+public final class QueryCounter {
+
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+	private QueryCounter() {
+	}
+
+	public static void start() {
+		COUNT.set(new int[1]);
+	}
+
+	public static int current() {
+		int[] count = COUNT.get();
+		return count == null ? 0 : count[0];
+	}
+
+	public static int stop() {
+		int count = current();
+		COUNT.remove();
+		return count;
+	}
+
+	static void increment() {
+		int[] count = COUNT.get();
+		if (count != null) {
+			count[0]++;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.bootcamp.dogfoodapi.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ *  DataSource que conta no QueryCounter cada execute* dos statements das suas conexões, então
+ *  entra o que de fato foi ao banco (Hibernate, JdbcTemplate ou JDBC direto) e não o que só foi
+ *  preparado. Um executeBatch conta uma vez, que é o que importa para round-trips.
+ * */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+	public QueryCountingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return countingProxy(Connection.class, super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return countingProxy(Connection.class, super.getConnection(username, password));
+	}
+
+	/**
+	 *  Proxy da conexão ou de um statement: os statements criados pela conexão também viram proxies
+	 *  (do tipo que o método devolve) e os execute* deles incrementam o contador.
+	 * */
+	private static <T> T countingProxy(Class<T> type, T target) {
+		return type.cast(Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				default:
+					break;
+			}
+			if (target instanceof Statement && method.getName().startsWith("execute")) {
+				QueryCounter.increment();
+			}
+			Object result = invoke(method, target, args);
+			if (target instanceof Connection && result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+				return countingProxy(statementType(method), (Statement) result);
+			}
+			return result;
+		}));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Class<Statement> statementType(Method method) {
+		return (Class<Statement>) method.getReturnType();
+	}
+
+	private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Closeable;
+
+/**
+ *  Os pools do primário e da réplica usados pelo roteamento.
+ *
+ *  Não são beans DataSource de propósito: o Spring Boot inicializaria o schema em cada um e entraria
+ *  em ciclo com o DataSource roteado. Os pools são fechados junto com este bean.
+ * */
+@Getter
+@AllArgsConstructor
+public class ReadWriteDataSources implements Closeable {
+
+	private final HikariDataSource primary;
+
+	private final HikariDataSource replica;
+
+	@Override
+	public void close() {
+		replica.close();
+		primary.close();
+	}
+}
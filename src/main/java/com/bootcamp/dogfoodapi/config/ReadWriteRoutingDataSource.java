@@ -0,0 +1,45 @@
+package com.bootcamp.dogfoodapi.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ *  Manda as transações read-only para a réplica e todo o resto para o primário.
+ *
+ *  Precisa ficar atrás de um LazyConnectionDataSourceProxy: a conexão só é pedida no primeiro
+ *  statement, quando a transação já está marcada como read-only. A thread pode ser fixada no
+ *  primário (read-your-writes), e aí mesmo as leituras vão para o primário.
+ * */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Route {
+		PRIMARY,
+		REPLICA
+	}
+
+	private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+	public static void pinToPrimary(boolean pinned) {
+		PINNED_TO_PRIMARY.set(pinned);
+	}
+
+	public static boolean isPinnedToPrimary() {
+		return PINNED_TO_PRIMARY.get();
+	}
+
+	public static void clearPin() {
+		PINNED_TO_PRIMARY.remove();
+	}
+
+	public static Route currentRoute() {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPinnedToPrimary()) {
+			return Route.REPLICA;
+		}
+		return Route.PRIMARY;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return currentRoute();
+	}
+}
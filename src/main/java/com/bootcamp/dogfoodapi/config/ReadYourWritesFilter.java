@@ -0,0 +1,81 @@
+package com.bootcamp.dogfoodapi.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *  Read-your-writes com réplica: depois de uma escrita com sucesso, as leituras do mesmo cliente
+ *  vão para o primário durante a janela configurada (o atraso de replicação esperado).
+ *
+ *  O cliente é o header X-Client-Id ou, sem ele, o endereço remoto.
+ * */
+@Component
+@ConditionalOnProperty(value = "dogfood.datasource.routing.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String CLIENT_ID_HEADER = "X-Client-Id";
+	private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	private final ConcurrentMap<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+	private final long windowMillis;
+	private final int maxTrackedClients;
+	private final Clock clock;
+
+	@Autowired
+	public ReadYourWritesFilter(@Value("${dogfood.datasource.routing.read-your-writes-millis:2000}") long windowMillis,
+								@Value("${dogfood.datasource.routing.max-tracked-clients:100000}") int maxTrackedClients) {
+		this(windowMillis, maxTrackedClients, Clock.systemUTC());
+	}
+
+	ReadYourWritesFilter(long windowMillis, int maxTrackedClients, Clock clock) {
+		this.windowMillis = windowMillis;
+		this.maxTrackedClients = maxTrackedClients;
+		this.clock = clock;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String clientId = clientId(request);
+		ReadWriteRoutingDataSource.pinToPrimary(wroteRecently(clientId));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ReadWriteRoutingDataSource.clearPin();
+			if (!READ_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+				recordWrite(clientId);
+			}
+		}
+	}
+
+	private boolean wroteRecently(String clientId) {
+		Long lastWrite = lastWriteByClient.get(clientId);
+		return lastWrite != null && clock.millis() - lastWrite < windowMillis;
+	}
+
+	private void recordWrite(String clientId) {
+		long now = clock.millis();
+		lastWriteByClient.put(clientId, now);
+		if (lastWriteByClient.size() > maxTrackedClients) {
+			lastWriteByClient.values().removeIf(lastWrite -> now - lastWrite >= windowMillis);
+		}
+	}
+
+	private static String clientId(HttpServletRequest request) {
+		String clientId = request.getHeader(CLIENT_ID_HEADER);
+		return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+	}
+}
@@ -0,0 +1,54 @@
+package com.bootcamp.dogfoodapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ *  Loga o tempo de startup (uptime da JVM) e o RSS do processo quando a aplicação fica pronta.
+ *
+ *  Com dogfood.startup.exit-on-ready=true a aplicação encerra logo depois, o que é usado
+ *  pelo profile Maven "cds" para gerar o arquivo de class-data sharing.
+ * */
+@Slf4j
+@Component
+public class StartupReportListener implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+	@Value("${dogfood.startup.exit-on-ready:false}")
+	private boolean exitOnReady;
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		log.info("Application ready in {} ms (JVM uptime), RSS {} kB",
+				ManagementFactory.getRuntimeMXBean().getUptime(), residentSetSizeKb());
+		if (exitOnReady) {
+			System.exit(SpringApplication.exit(event.getApplicationContext()));
+		}
+	}
+
+	private static long residentSetSizeKb() {
+		if (!Files.isReadable(PROC_STATUS)) {
+			return -1;
+		}
+		try {
+			return Files.readAllLines(PROC_STATUS).stream()
+					.filter(line -> line.startsWith("VmRSS:"))
+					.mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+					.findFirst()
+					.orElse(-1);
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.bootcamp.dogfoodapi.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -14,6 +15,7 @@ import static springfox.documentation.builders.RequestHandlerSelectors.*;
 
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(name = "dogfood.swagger.enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 
 	private static final String BASE_PACKAGE = "com.bootcamp.dogfoodapi.controller";
@@ -0,0 +1,27 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.bootcamp.dogfoodapi.service.FoodCacheWarmer;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ *  Mantém o /actuator/health em OUT_OF_SERVICE (503) enquanto o FoodCache é aquecido pelo snapshot,
+ *  para o balanceador só mandar tráfego depois.
+ * */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WarmupHealthIndicator implements HealthIndicator {
+
+	private final FoodCacheWarmer foodCacheWarmer;
+
+	@Override
+	public Health health() {
+		if (foodCacheWarmer.isWarm()) {
+			return Health.up().build();
+		}
+		return Health.outOfService().withDetail("reason", "Restoring food cache snapshot").build();
+	}
+}
@@ -1,11 +1,22 @@
 package com.bootcamp.dogfoodapi.controller;
 
+import com.bootcamp.dogfoodapi.config.QueryBudget;
+import com.bootcamp.dogfoodapi.dto.DeletedFoodsDTO;
 import com.bootcamp.dogfoodapi.dto.FoodDTO;
 import com.bootcamp.dogfoodapi.dto.QuantityDTO;
+import com.bootcamp.dogfoodapi.dto.TicketDTO;
+import com.bootcamp.dogfoodapi.enums.FoodType;
 import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
 import com.bootcamp.dogfoodapi.exception.FoodAlreadyRegisteredException;
 import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.IdempotencyKeyReusedException;
+import com.bootcamp.dogfoodapi.exception.IdempotentRequestInProgressException;
+import com.bootcamp.dogfoodapi.exception.InvalidFoodFilterException;
+import com.bootcamp.dogfoodapi.exception.StockMutationQueueFullException;
+import com.bootcamp.dogfoodapi.exception.TicketNotFoundException;
 import com.bootcamp.dogfoodapi.service.FoodService;
+import com.bootcamp.dogfoodapi.service.IdempotencyService;
+import com.bootcamp.dogfoodapi.service.StockMutationQueue;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,50 +26,145 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/foods")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class FoodController implements FoodControllerDocs {
 
+	private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
 	private final FoodService foodService;
+	private final IdempotencyService idempotencyService;
+	private final StockMutationQueue stockMutationQueue;
 
 	@PostMapping
 	@ResponseStatus(HttpStatus.CREATED)
-	public FoodDTO createFood(@RequestBody @Valid FoodDTO foodDTO) throws FoodAlreadyRegisteredException {
-		return foodService.createFood(foodDTO);
+	@QueryBudget(3)
+	public FoodDTO createFood(@RequestBody @Valid FoodDTO foodDTO,
+							  @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+			throws FoodAlreadyRegisteredException, IdempotentRequestInProgressException,
+			IdempotencyKeyReusedException {
+		String scope = "create";
+		Optional<FoodDTO> replayedResponse = idempotencyService.findOrLock(idempotencyKey, scope, foodDTO);
+		if (replayedResponse.isPresent()) {
+			return replayedResponse.get();
+		}
+		try {
+			FoodDTO createdFood = foodService.createFood(foodDTO);
+			idempotencyService.store(idempotencyKey, scope, foodDTO, createdFood);
+			return createdFood;
+		} finally {
+			idempotencyService.unlock(idempotencyKey, scope);
+		}
+	}
+
+	@GetMapping(params = "q")
+	@QueryBudget(1)
+	public List<FoodDTO> search(@RequestParam("q") String query,
+								@RequestParam(value = "limit", defaultValue = "10") int limit) {
+		return foodService.search(query, limit);
 	}
 
 	@GetMapping("/{name}")
+	@QueryBudget(1)
 	public FoodDTO findByName(@PathVariable String name) throws FoodNotFoundException {
 		return foodService.findByName(name);
 	}
 
 	@GetMapping
+	@QueryBudget(1)
 	public List<FoodDTO> listFoods(){
 		return foodService.listAll();
 	}
 
 	@DeleteMapping("/{id}")
 	@ResponseStatus(HttpStatus.NO_CONTENT)
+	@QueryBudget(4)
 	public void deleteById(@PathVariable Long id) throws FoodNotFoundException {
 	    foodService.deleteById(id);
 	}
 
+	@DeleteMapping
+	@QueryBudget(102)
+	public DeletedFoodsDTO deleteByFilter(@RequestParam(value = "brand", required = false) String brand,
+										  @RequestParam(value = "type", required = false) FoodType type) throws InvalidFoodFilterException {
+		return DeletedFoodsDTO.builder()
+				.brand(brand)
+				.type(type)
+				.deleted(foodService.deleteByFilter(brand, type))
+				.build();
+	}
+
 	@PatchMapping("/{id}/increment")
-	public FoodDTO increment(@PathVariable Long id, @RequestBody QuantityDTO quantityDTO) throws FoodNotFoundException, FoodStockExceededException {
-	    return foodService.increment(id, quantityDTO.getQuantity());
+	@QueryBudget(3)
+	public FoodDTO increment(@PathVariable Long id, @RequestBody QuantityDTO quantityDTO,
+							 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+			throws FoodNotFoundException, FoodStockExceededException, IdempotentRequestInProgressException,
+			IdempotencyKeyReusedException {
+		String scope = "increment:" + id;
+		Optional<FoodDTO> replayedResponse = idempotencyService.findOrLock(idempotencyKey, scope, quantityDTO);
+		if (replayedResponse.isPresent()) {
+			return replayedResponse.get();
+		}
+		try {
+			FoodDTO incrementedFood = foodService.increment(id, quantityDTO.getQuantity());
+			idempotencyService.store(idempotencyKey, scope, quantityDTO, incrementedFood);
+			return incrementedFood;
+		} finally {
+			idempotencyService.unlock(idempotencyKey, scope);
+		}
 	}
 
 	@PatchMapping("/{id}/decrement")
-	public FoodDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws  FoodNotFoundException, FoodStockExceededException {
-	return  foodService.decrement(id, quantityDTO.getQuantity());
+	@QueryBudget(3)
+	public FoodDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+							 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+			throws FoodNotFoundException, FoodStockExceededException, IdempotentRequestInProgressException,
+			IdempotencyKeyReusedException {
+		String scope = "decrement:" + id;
+		Optional<FoodDTO> replayedResponse = idempotencyService.findOrLock(idempotencyKey, scope, quantityDTO);
+		if (replayedResponse.isPresent()) {
+			return replayedResponse.get();
+		}
+		try {
+			FoodDTO decrementedFood = foodService.decrement(id, quantityDTO.getQuantity());
+			idempotencyService.store(idempotencyKey, scope, quantityDTO, decrementedFood);
+			return decrementedFood;
+		} finally {
+			idempotencyService.unlock(idempotencyKey, scope);
+		}
+	}
+
+	@PatchMapping(value = "/{id}/increment", params = "async=true")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	@QueryBudget(0)
+	public TicketDTO incrementAsync(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
+			throws StockMutationQueueFullException {
+		return stockMutationQueue.submit(id, quantityDTO.getQuantity());
+	}
+
+	@PatchMapping(value = "/{id}/decrement", params = "async=true")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	@QueryBudget(0)
+	public TicketDTO decrementAsync(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
+			throws StockMutationQueueFullException {
+		return stockMutationQueue.submit(id, -quantityDTO.getQuantity());
+	}
+
+	@GetMapping("/tickets/{ticket}")
+	@QueryBudget(0)
+	public TicketDTO findTicket(@PathVariable String ticket) throws TicketNotFoundException {
+		return stockMutationQueue.findTicket(ticket);
 	}
 
 }
@@ -1,8 +1,13 @@
 package com.bootcamp.dogfoodapi.controller;
 
+import com.bootcamp.dogfoodapi.dto.DeletedFoodsDTO;
 import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.enums.FoodType;
 import com.bootcamp.dogfoodapi.exception.FoodAlreadyRegisteredException;
 import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.IdempotencyKeyReusedException;
+import com.bootcamp.dogfoodapi.exception.IdempotentRequestInProgressException;
+import com.bootcamp.dogfoodapi.exception.InvalidFoodFilterException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
@@ -19,9 +24,12 @@ public interface FoodControllerDocs {
 	@ApiOperation(value = "Food creation operation")
 	@ApiResponses(value = {
 			@ApiResponse(code = 201, message = "Success food creation"),
-			@ApiResponse(code = 400, message = "Missing required fields or wrong fields range value.")
+			@ApiResponse(code = 400, message = "Missing required fields or wrong fields range value."),
+			@ApiResponse(code = 409, message = "Request with the same Idempotency-Key still being processed."),
+			@ApiResponse(code = 422, message = "Idempotency-Key already used with a different request body.")
 	})
-	FoodDTO createFood(FoodDTO foodDTO) throws FoodAlreadyRegisteredException;
+	FoodDTO createFood(FoodDTO foodDTO, String idempotencyKey) throws FoodAlreadyRegisteredException,
+			IdempotentRequestInProgressException, IdempotencyKeyReusedException;
 
 	@ApiOperation(value = "Returns foods found by a given name")
 	@ApiResponses(value = {
@@ -30,6 +38,12 @@ public interface FoodControllerDocs {
 	})
 	FoodDTO findByName(@PathVariable String name) throws FoodNotFoundException;
 
+	@ApiOperation(value = "Returns foods whose name or brand match the given text, ranked by relevance")
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Top foods matching the given text by prefix or with one typo")
+	})
+	List<FoodDTO> search(String query, int limit);
+
 	@ApiOperation(value = "Returns a list of all foods registered in the system")
 	@ApiResponses(value = {
 			@ApiResponse(code = 200, message = "List of all foods registered in the system")
@@ -42,4 +56,11 @@ public interface FoodControllerDocs {
 			@ApiResponse(code = 404, message = "Food with given id not found.")
 	})
 	void deleteById(@PathVariable Long id) throws FoodNotFoundException;
+
+	@ApiOperation(value = "Delete all foods matching the given brand and/or type")
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "Number of foods deleted in the system"),
+			@ApiResponse(code = 400, message = "Neither brand nor type was given.")
+	})
+	DeletedFoodsDTO deleteByFilter(String brand, FoodType type) throws InvalidFoodFilterException;
 }
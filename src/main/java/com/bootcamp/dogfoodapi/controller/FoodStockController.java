@@ -0,0 +1,51 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.dto.FoodStockDTO;
+import com.bootcamp.dogfoodapi.dto.QuantityDTO;
+import com.bootcamp.dogfoodapi.dto.StockTransferDTO;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.InvalidLocationException;
+import com.bootcamp.dogfoodapi.service.FoodStockService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/foods")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class FoodStockController {
+
+	private final FoodStockService foodStockService;
+
+	@GetMapping("/{id}/stock")
+	public FoodStockDTO stockOf(@PathVariable Long id) throws FoodNotFoundException {
+		return foodStockService.stockOf(id);
+	}
+
+	@PatchMapping("/{id}/stock/{location}/increment")
+	public FoodStockDTO increment(@PathVariable Long id, @PathVariable String location, @RequestBody @Valid QuantityDTO quantityDTO)
+			throws FoodNotFoundException, FoodStockExceededException, InvalidLocationException {
+		return foodStockService.increment(id, location, quantityDTO.getQuantity());
+	}
+
+	@PatchMapping("/{id}/stock/{location}/decrement")
+	public FoodStockDTO decrement(@PathVariable Long id, @PathVariable String location, @RequestBody @Valid QuantityDTO quantityDTO)
+			throws FoodNotFoundException, FoodStockExceededException, InvalidLocationException {
+		return foodStockService.decrement(id, location, quantityDTO.getQuantity());
+	}
+
+	@GetMapping("/stock/rebalance")
+	public List<StockTransferDTO> rebalance(@RequestParam(defaultValue = "0") int minimum) {
+		return foodStockService.rebalance(minimum);
+	}
+}
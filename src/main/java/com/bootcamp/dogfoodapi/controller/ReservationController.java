@@ -0,0 +1,55 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.dto.AvailabilityDTO;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.ReservationDTO;
+import com.bootcamp.dogfoodapi.dto.ReservationRequestDTO;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.ReservationNotFoundException;
+import com.bootcamp.dogfoodapi.service.ReservationService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1/foods")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReservationController {
+
+	private final ReservationService reservationService;
+
+	@PostMapping("/{id}/reservations")
+	@ResponseStatus(HttpStatus.CREATED)
+	public ReservationDTO reserve(@PathVariable Long id, @RequestBody @Valid ReservationRequestDTO reservationRequestDTO)
+			throws FoodNotFoundException, FoodStockExceededException {
+		return reservationService.reserve(id, reservationRequestDTO.getQuantity(), reservationRequestDTO.getTtlSeconds());
+	}
+
+	@PostMapping("/reservations/{reservationId}/commit")
+	public FoodDTO commit(@PathVariable String reservationId)
+			throws ReservationNotFoundException, FoodNotFoundException, FoodStockExceededException {
+		return reservationService.commit(reservationId);
+	}
+
+	@DeleteMapping("/reservations/{reservationId}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void release(@PathVariable String reservationId) throws ReservationNotFoundException {
+		reservationService.release(reservationId);
+	}
+
+	@GetMapping("/{id}/availability")
+	public AvailabilityDTO availability(@PathVariable Long id) throws FoodNotFoundException {
+		return reservationService.availability(id);
+	}
+}
@@ -0,0 +1,33 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.dto.StockHistoryDTO;
+import com.bootcamp.dogfoodapi.dto.StockProjectionDTO;
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.service.StockHistoryService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/foods")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockHistoryController {
+
+	private final StockHistoryService stockHistoryService;
+
+	@GetMapping("/{id}/history")
+	public StockHistoryDTO history(@PathVariable Long id,
+								   @RequestParam(defaultValue = "HOUR") HistoryResolution resolution) throws FoodNotFoundException {
+		return stockHistoryService.history(id, resolution);
+	}
+
+	@GetMapping("/{id}/projection")
+	public StockProjectionDTO projection(@PathVariable Long id) throws FoodNotFoundException {
+		return stockHistoryService.projection(id);
+	}
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDTO {
+
+	private Long foodId;
+
+	private Integer quantity;
+
+	private Integer held;
+
+	private Integer available;
+}
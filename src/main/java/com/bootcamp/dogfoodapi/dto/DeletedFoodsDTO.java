@@ -0,0 +1,20 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedFoodsDTO {
+
+	private String brand;
+
+	private FoodType type;
+
+	private Integer deleted;
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodStockDTO {
+
+	private Long foodId;
+
+	private Integer max;
+
+	private Integer quantity;
+
+	private List<LocationStockDTO> locations;
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStockDTO {
+
+	private String location;
+
+	private Integer quantity;
+}
@@ -0,0 +1,32 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessageDTO {
+
+	private Long eventId;
+
+	private Long foodId;
+
+	private FoodEventType type;
+
+	private Integer unitsAdded;
+
+	private Integer unitsRemoved;
+
+	private Integer compactedEvents;
+
+	private Instant occurredAt;
+
+	private FoodDTO food;
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+
+	private String id;
+
+	private Long foodId;
+
+	private Integer quantity;
+
+	private Instant expiresAt;
+}
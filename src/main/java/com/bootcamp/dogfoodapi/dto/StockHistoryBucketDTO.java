@@ -0,0 +1,23 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHistoryBucketDTO {
+
+	private Instant start;
+
+	private Integer unitsAdded;
+
+	private Integer unitsRemoved;
+
+	private Integer closingQuantity;
+}
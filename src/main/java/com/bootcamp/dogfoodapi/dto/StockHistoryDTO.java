@@ -0,0 +1,22 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHistoryDTO {
+
+	private Long foodId;
+
+	private HistoryResolution resolution;
+
+	private List<StockHistoryBucketDTO> buckets;
+}
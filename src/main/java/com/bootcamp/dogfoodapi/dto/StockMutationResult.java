@@ -0,0 +1,16 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMutationResult {
+
+	private StockMutationStatus status;
+
+	private FoodDTO food;
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockProjectionDTO {
+
+	private Long foodId;
+
+	private Integer quantity;
+
+	private Double unitsRemovedPerHour;
+
+	private Double unitsRemovedPerDay;
+
+	private Double daysUntilEmpty;
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferDTO {
+
+	private Long foodId;
+
+	private String from;
+
+	private String to;
+
+	private Integer quantity;
+}
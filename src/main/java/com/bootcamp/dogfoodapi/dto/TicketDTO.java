@@ -0,0 +1,24 @@
+package com.bootcamp.dogfoodapi.dto;
+
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketDTO {
+
+	private String ticket;
+
+	private Long foodId;
+
+	private Integer quantityDelta;
+
+	private StockMutationStatus status;
+
+	private FoodDTO food;
+}
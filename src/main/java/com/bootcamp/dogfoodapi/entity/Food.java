@@ -4,6 +4,7 @@ import com.bootcamp.dogfoodapi.enums.FoodType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -12,11 +13,16 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
 
 @Data
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_food_tombstone", columnList = "deleted, deletedAt"))
+@Where(clause = "deleted = false")
 public class Food {
 
 	@Id
@@ -38,5 +44,20 @@ public class Food {
 	@Enumerated(EnumType.STRING)
 	@Column(nullable = false)
 	private FoodType type;
-}
 
+	/**
+	 *  Parte de quantity que está em locais diferentes do padrão (soma das linhas de FoodStock).
+	 *  O local padrão fica com quantity - allocatedQuantity.
+	 * */
+	@Column(nullable = false, columnDefinition = "integer default 0")
+	private int allocatedQuantity;
+
+	/**
+	 *  Tombstone do soft delete: o food sai de todas as consultas JPA (@Where) na hora e a linha
+	 *  é removida depois pelo FoodTombstonePurger.
+	 * */
+	@Column(nullable = false, columnDefinition = "boolean default false")
+	private boolean deleted;
+
+	private Instant deletedAt;
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.dogfoodapi.entity;
+
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ *  Evento do outbox que não pôde ser lido (payload inválido). Sai do outbox para não travar os
+ *  lotes seguintes e fica aqui, com o mesmo id, para ser investigado.
+ * */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDeadLetter {
+
+	@Id
+	private Long eventId;
+
+	@Column(nullable = false)
+	private Long foodId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private FoodEventType type;
+
+	@Column(nullable = false, length = 4000)
+	private String payload;
+
+	@Column(nullable = false)
+	private Instant occurredAt;
+
+	@Column(nullable = false, length = 1000)
+	private String error;
+
+	@Column(nullable = false)
+	private Instant failedAt;
+}
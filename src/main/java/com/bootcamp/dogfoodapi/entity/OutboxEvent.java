@@ -0,0 +1,45 @@
+package com.bootcamp.dogfoodapi.entity;
+
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long foodId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private FoodEventType type;
+
+	@Column(nullable = false)
+	private int unitsAdded;
+
+	@Column(nullable = false)
+	private int unitsRemoved;
+
+	@Column(nullable = false, length = 4000)
+	private String payload;
+
+	@Column(nullable = false)
+	private Instant occurredAt;
+}
@@ -0,0 +1,48 @@
+package com.bootcamp.dogfoodapi.entity;
+
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"foodId", "resolution", "bucketStart"}))
+public class StockHistoryBucket {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long foodId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private HistoryResolution resolution;
+
+	@Column(nullable = false)
+	private Instant bucketStart;
+
+	@Column(nullable = false)
+	private int unitsAdded;
+
+	@Column(nullable = false)
+	private int unitsRemoved;
+
+	@Column(nullable = false)
+	private int closingQuantity;
+}
@@ -0,0 +1,15 @@
+package com.bootcamp.dogfoodapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum FoodEventType {
+
+	CREATED("Created"),
+	STOCK_CHANGED("Stock changed"),
+	DELETED("Deleted");
+
+	private final String description;
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.dogfoodapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum HistoryResolution {
+
+	MINUTE("Minute", 60_000L),
+	HOUR("Hour", 3_600_000L),
+	DAY("Day", 86_400_000L);
+
+	private final String description;
+
+	private final long millis;
+}
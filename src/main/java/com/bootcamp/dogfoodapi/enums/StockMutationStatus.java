@@ -0,0 +1,17 @@
+package com.bootcamp.dogfoodapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockMutationStatus {
+
+	PENDING("Pending"),
+	APPLIED("Applied"),
+	STOCK_EXCEEDED("Stock exceeded"),
+	NOT_FOUND("Food not found"),
+	FAILED("Failed");
+
+	private final String description;
+}
@@ -0,0 +1,52 @@
+package com.bootcamp.dogfoodapi.event;
+
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ *  Acrescenta as mensagens do outbox em um arquivo JSON lines (uma mensagem por linha).
+ *
+ *  O lote é escrito de uma vez e sincronizado em disco antes de ser confirmado.
+ * */
+@Component
+@ConditionalOnProperty(value = "dogfood.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.findAndRegisterModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	private final File file;
+
+	@Autowired
+	public FileOutboxSink(@Value("${dogfood.outbox.file:outbox/food-events.jsonl}") String file) {
+		this.file = new File(file);
+	}
+
+	@Override
+	public synchronized void send(List<OutboxMessageDTO> messages) throws IOException {
+		ByteArrayOutputStream lines = new ByteArrayOutputStream();
+		for (OutboxMessageDTO message : messages) {
+			lines.write(objectMapper.writeValueAsBytes(message));
+			lines.write('\n');
+		}
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		try (FileOutputStream output = new FileOutputStream(file, true)) {
+			lines.writeTo(output);
+			output.getFD().sync();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.bootcamp.dogfoodapi.event;
+
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *  Evento de alteração de um food. Em STOCK_CHANGED (e no CREATED, com o estoque inicial)
+ *  unitsAdded e unitsRemoved trazem o total de unidades que entraram e saíram na alteração.
+ * */
+@Getter
+@ToString
+@AllArgsConstructor
+public class FoodEvent {
+
+	private final FoodEventType type;
+
+	private final FoodDTO food;
+
+	private final int unitsAdded;
+
+	private final int unitsRemoved;
+
+	public FoodEvent(FoodEventType type, FoodDTO food) {
+		this(type, food, 0, 0);
+	}
+
+	public int getQuantityDelta() {
+		return unitsAdded - unitsRemoved;
+	}
+}
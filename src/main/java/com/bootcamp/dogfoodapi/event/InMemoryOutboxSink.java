@@ -0,0 +1,46 @@
+package com.bootcamp.dogfoodapi.event;
+
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ *  Guarda as últimas mensagens do outbox em memória, para testes e desenvolvimento local.
+ * */
+@Component
+@ConditionalOnProperty(value = "dogfood.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+	private final Deque<OutboxMessageDTO> messages = new ArrayDeque<>();
+	private final int capacity;
+
+	@Autowired
+	public InMemoryOutboxSink(@Value("${dogfood.outbox.memory-capacity:10000}") int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	public synchronized void send(List<OutboxMessageDTO> batch) {
+		for (OutboxMessageDTO message : batch) {
+			if (messages.size() == capacity) {
+				messages.removeFirst();
+			}
+			messages.addLast(message);
+		}
+	}
+
+	public synchronized List<OutboxMessageDTO> getMessages() {
+		return new ArrayList<>(messages);
+	}
+
+	public synchronized void clear() {
+		messages.clear();
+	}
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.dogfoodapi.event;
+
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ *  Destino das mensagens do outbox (arquivo, memória, um broker...).
+ *
+ *  Um lote só é apagado do outbox depois que send retorna sem exceção; se o send falhar o lote
+ *  inteiro é reenviado no próximo ciclo, então o sink precisa aceitar mensagens repetidas (eventId).
+ * */
+public interface OutboxSink {
+
+	void send(List<OutboxMessageDTO> messages) throws IOException;
+}
@@ -4,9 +4,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class FoodAlreadyRegisteredException extends  Exception {
+public class FoodAlreadyRegisteredException extends StacklessException {
+
+	private final String foodName;
 
 	public FoodAlreadyRegisteredException(String foodName) {
-		super(String.format("Food with name %s already registered in the system.", foodName));
+		this.foodName = foodName;
+	}
+
+	@Override
+	protected String buildMessage() {
+		return String.format("Food with name %s already registered in the system.", foodName);
 	}
 }
@@ -4,13 +4,25 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class FoodNotFoundException extends Exception {
+public class FoodNotFoundException extends StacklessException {
+
+	private final String name;
+	private final Long id;
 
 	public FoodNotFoundException(String formName) {
-		super(String.format("Food with name %s not found in the system.", formName));
+		this.name = formName;
+		this.id = null;
 	}
 
 	public FoodNotFoundException(Long id){
-		super(String.format("Food with id %s not found in the system.", id));
+		this.name = null;
+		this.id = id;
+	}
+
+	@Override
+	protected String buildMessage() {
+		return name != null
+				? String.format("Food with name %s not found in the system.", name)
+				: String.format("Food with id %s not found in the system.", id);
 	}
 }
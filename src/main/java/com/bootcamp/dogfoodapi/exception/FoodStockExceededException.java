@@ -4,10 +4,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class FoodStockExceededException extends Exception {
+public class FoodStockExceededException extends StacklessException {
+
+	private final Long id;
+	private final int quantity;
 
 	public FoodStockExceededException(Long id, int quanitityToIncrement) {
-		super(String.format("Foods with %s ID to increment informed exceeds the max stock capacity: %s", id,
-				quanitityToIncrement));
+		this.id = id;
+		this.quantity = quanitityToIncrement;
+	}
+
+	@Override
+	protected String buildMessage() {
+		return String.format("Foods with %s ID to increment informed exceeds the max stock capacity: %s", id, quantity);
 	}
 }
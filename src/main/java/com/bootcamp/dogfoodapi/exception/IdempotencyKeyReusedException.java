@@ -0,0 +1,12 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends Exception {
+
+	public IdempotencyKeyReusedException(String idempotencyKey) {
+		super(String.format("Idempotency key %s was already used with a different request body.", idempotencyKey));
+	}
+}
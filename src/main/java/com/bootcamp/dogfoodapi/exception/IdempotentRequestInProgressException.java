@@ -0,0 +1,12 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotentRequestInProgressException extends Exception {
+
+	public IdempotentRequestInProgressException(String idempotencyKey) {
+		super(String.format("Request with idempotency key %s is still being processed.", idempotencyKey));
+	}
+}
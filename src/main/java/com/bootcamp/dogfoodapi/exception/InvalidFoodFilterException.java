@@ -0,0 +1,13 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFoodFilterException extends StacklessException {
+
+	@Override
+	protected String buildMessage() {
+		return "At least one filter (brand or type) must be given to delete foods.";
+	}
+}
@@ -0,0 +1,19 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidLocationException extends StacklessException {
+
+	private final String location;
+
+	public InvalidLocationException(String location) {
+		this.location = location;
+	}
+
+	@Override
+	protected String buildMessage() {
+		return String.format("Location %s is not valid, it must have between 1 and 50 characters.", location);
+	}
+}
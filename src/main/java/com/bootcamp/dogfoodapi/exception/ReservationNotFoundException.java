@@ -0,0 +1,12 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends Exception {
+
+	public ReservationNotFoundException(String reservationId) {
+		super(String.format("Reservation with id %s not found or already expired.", reservationId));
+	}
+}
@@ -0,0 +1,26 @@
+package com.bootcamp.dogfoodapi.exception;
+
+/**
+ *  Base das exceções de negócio esperadas (food não encontrado, estoque excedido...).
+ *
+ *  Essas exceções só viram um status HTTP, então não preenchem o stack trace e só formatam a
+ *  mensagem quando alguém chama getMessage (log, toString...). Criar uma custa o mesmo que um objeto comum.
+ * */
+public abstract class StacklessException extends Exception {
+
+	private String message;
+
+	protected StacklessException() {
+		super(null, null, false, false);
+	}
+
+	protected abstract String buildMessage();
+
+	@Override
+	public String getMessage() {
+		if (message == null) {
+			message = buildMessage();
+		}
+		return message;
+	}
+}
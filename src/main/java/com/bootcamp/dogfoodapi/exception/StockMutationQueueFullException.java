@@ -0,0 +1,19 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StockMutationQueueFullException extends StacklessException {
+
+	private final Long id;
+
+	public StockMutationQueueFullException(Long id) {
+		this.id = id;
+	}
+
+	@Override
+	protected String buildMessage() {
+		return String.format("Stock mutation queue for food with %s ID is full or shutting down, try again later.", id);
+	}
+}
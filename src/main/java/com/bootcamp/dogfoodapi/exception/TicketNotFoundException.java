@@ -0,0 +1,12 @@
+package com.bootcamp.dogfoodapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TicketNotFoundException extends Exception {
+
+	public TicketNotFoundException(String ticket) {
+		super(String.format("Ticket %s not found in the system.", ticket));
+	}
+}
@@ -3,6 +3,7 @@ package com.bootcamp.dogfoodapi.mapper;
 import com.bootcamp.dogfoodapi.dto.FoodDTO;
 import com.bootcamp.dogfoodapi.entity.Food;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,6 +11,9 @@ public interface FoodMapper {
 
 	FoodMapper INSTANCE = Mappers.getMapper(FoodMapper.class);
 
+	@Mapping(target = "allocatedQuantity", ignore = true)
+	@Mapping(target = "deleted", ignore = true)
+	@Mapping(target = "deletedAt", ignore = true)
 	Food toModel(FoodDTO foodDTO);
 
 	FoodDTO toDTO(Food food);
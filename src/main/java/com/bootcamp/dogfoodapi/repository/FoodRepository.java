@@ -1,12 +1,77 @@
 package com.bootcamp.dogfoodapi.repository;
 
 import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 public interface FoodRepository extends JpaRepository<Food, Long> {
 
 	Optional<Food> findByName(String name);
+
+	/**
+	 *  SELECT ... FOR UPDATE: quem altera o estoque lendo e gravando o food segura a linha até o
+	 *  commit, então duas escritas no mesmo food nunca se sobrepõem.
+	 * */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select food from Food food where food.id = ?1")
+	Optional<Food> findForUpdateById(Long id);
+
+	/**
+	 *  Um lote dos foods do filtro, travados em ordem de id (a mesma ordem em que qualquer outra
+	 *  escrita pegaria as linhas, então não há deadlock com elas).
+	 * */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select food from Food food where (:brand is null or food.brand = :brand) and (:type is null or food.type = :type) order by food.id")
+	List<Food> findForUpdateByFilter(@Param("brand") String brand, @Param("type") FoodType type, Pageable pageable);
+
+	/**
+	 *  Foods cujo estoque no local padrão (o que não está alocado em FoodStock) está abaixo de
+	 *  minimum; o filtro roda no banco para o rebalanceamento não ler o catálogo inteiro.
+	 * */
+	@Query("select food from Food food where food.quantity - food.allocatedQuantity < ?1 order by food.id")
+	List<Food> findDefaultStockBelow(int minimum);
+
+	@Query("select food from Food food where food.id in ?2 and food.quantity - food.allocatedQuantity > ?1")
+	List<Food> findDefaultStockAbove(int minimum, Collection<Long> ids);
+
+	@Modifying
+	@Query("update Food food set food.deleted = true, food.deletedAt = :deletedAt where food.id in :ids")
+	int markAsDeleted(@Param("ids") List<Long> ids, @Param("deletedAt") Instant deletedAt);
+
+	/**
+	 *  Queries nativas não passam pelo @Where de Food: esta também encontra o tombstone que ainda
+	 *  segura o nome (a coluna name é unique).
+	 * */
+	@Query(value = "SELECT * FROM food WHERE name = ?1", nativeQuery = true)
+	Optional<Food> findIncludingDeletedByName(String name);
+
+	@Modifying
+	@Query(value = "DELETE FROM food WHERE id = ?1 AND deleted = TRUE", nativeQuery = true)
+	int purgeDeleted(Long id);
+
+	/**
+	 *  Até limit tombstones apagados antes de deletedBefore, os mais antigos primeiro; o índice
+	 *  idx_food_tombstone evita varrer os foods vivos. Foods com eventos ainda no outbox ficam para
+	 *  depois da entrega, então o purge nunca deixa evento de food que não existe mais.
+	 * */
+	@Query(value = "SELECT id FROM food WHERE deleted = TRUE AND deleted_at < ?1"
+			+ " AND NOT EXISTS (SELECT 1 FROM outbox_event WHERE outbox_event.food_id = food.id) ORDER BY deleted_at LIMIT ?2",
+			nativeQuery = true)
+	List<Long> findPurgeableIds(Instant deletedBefore, int limit);
+
+	@Modifying
+	@Query(value = "DELETE FROM food WHERE id IN ?1 AND deleted = TRUE", nativeQuery = true)
+	int purgeDeleted(List<Long> ids);
 }
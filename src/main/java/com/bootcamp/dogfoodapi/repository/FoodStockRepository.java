@@ -0,0 +1,25 @@
+package com.bootcamp.dogfoodapi.repository;
+
+import com.bootcamp.dogfoodapi.entity.FoodStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FoodStockRepository extends JpaRepository<FoodStock, Long> {
+
+	List<FoodStock> findByFoodIdOrderByLocation(Long foodId);
+
+	Optional<FoodStock> findByFoodIdAndLocation(Long foodId, String location);
+
+	List<FoodStock> findByQuantityLessThanOrderByFoodId(int minimum);
+
+	List<FoodStock> findByFoodIdInAndQuantityGreaterThan(Collection<Long> foodIds, int minimum);
+
+	@Modifying
+	@Query("delete from FoodStock foodStock where foodStock.foodId = ?1")
+	int deleteByFoodId(Long foodId);
+}
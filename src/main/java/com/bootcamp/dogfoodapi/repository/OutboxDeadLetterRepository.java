@@ -0,0 +1,7 @@
+package com.bootcamp.dogfoodapi.repository;
+
+import com.bootcamp.dogfoodapi.entity.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.dogfoodapi.repository;
+
+import com.bootcamp.dogfoodapi.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+	/**
+	 *  O lote mais antigo, travado até o commit: outro relay que pedir o mesmo lote espera (ou
+	 *  falha por timeout de lock) e, depois do commit, já não vê os eventos entregues.
+	 * */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select event from OutboxEvent event order by event.id")
+	List<OutboxEvent> findForUpdate(Pageable pageable);
+}
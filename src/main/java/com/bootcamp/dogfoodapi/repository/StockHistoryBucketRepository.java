@@ -0,0 +1,26 @@
+package com.bootcamp.dogfoodapi.repository;
+
+import com.bootcamp.dogfoodapi.entity.StockHistoryBucket;
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockHistoryBucketRepository extends JpaRepository<StockHistoryBucket, Long> {
+
+	Optional<StockHistoryBucket> findByFoodIdAndResolutionAndBucketStart(Long foodId, HistoryResolution resolution, Instant bucketStart);
+
+	@Modifying
+	@Query("delete from StockHistoryBucket bucket where bucket.foodId in ?1")
+	int deleteByFoodIdIn(Collection<Long> foodIds);
+
+	@Query("select distinct bucket.foodId from StockHistoryBucket bucket where bucket.bucketStart >= ?1")
+	List<Long> findFoodIdsWithBucketsSince(Instant bucketStart);
+
+	List<StockHistoryBucket> findByFoodIdAndResolutionAndBucketStartGreaterThanEqual(Long foodId, HistoryResolution resolution, Instant bucketStart);
+}
@@ -0,0 +1,178 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.utils.CountMinSketch;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ *  Cache dos foods buscados por nome, com a frequência de acesso de cada id num count-min sketch.
+ *
+ *  Quem lê do banco pega um stamp antes da leitura e só grava no cache se nenhum FoodEvent do mesmo
+ *  food chegou nesse meio tempo, então uma leitura anterior a um commit não sobrescreve o estado
+ *  novo; os eventos atualizam as entradas que já estão no cache. Cada evento marca com a sua
+ *  sequência uma de STAMP_STRIPES faixas (pelo id do food), então um evento de um food só recusa as
+ *  leituras dos foods da mesma faixa. O TTL limita o quanto uma entrada pode ficar desatualizada
+ *  (por exemplo lida de uma réplica atrasada). Cheio, o cache compara o food novo com o menos
+ *  acessado de uma pequena amostra e fica com o mais frequente; a amostra é tirada de um cursor que
+ *  continua de onde a anterior parou, para que todas as entradas acabem sendo consideradas.
+ * */
+@Service
+public class FoodCache {
+
+	private static final int EVICTION_SAMPLE_SIZE = 8;
+	private static final int STAMP_STRIPES = 1024;
+
+	private final ConcurrentMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong invalidations = new AtomicLong();
+	private final AtomicLongArray invalidatedAt = new AtomicLongArray(STAMP_STRIPES);
+	private Iterator<Map.Entry<String, CacheEntry>> evictionCursor = entries.entrySet().iterator();
+	private final CountMinSketch frequencies;
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final Clock clock;
+
+	@Autowired
+	public FoodCache(@Value("${dogfood.cache.max-entries:10000}") int maxEntries,
+					 @Value("${dogfood.cache.ttl-seconds:60}") long ttlSeconds) {
+		this(maxEntries, ttlSeconds, Clock.systemUTC());
+	}
+
+	FoodCache(int maxEntries, long ttlSeconds, Clock clock) {
+		this.frequencies = new CountMinSketch(Math.max(16, maxEntries * 4), Math.max(16L, maxEntries * 10L));
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlSeconds * 1000;
+		this.clock = clock;
+	}
+
+	public Optional<FoodDTO> get(String name) {
+		CacheEntry entry = entries.get(name);
+		if (entry == null) {
+			return Optional.empty();
+		}
+		if (clock.millis() - entry.getLoadedAt() >= ttlMillis) {
+			entries.remove(name, entry);
+			return Optional.empty();
+		}
+		frequencies.increment(entry.getFood().getId());
+		return Optional.of(entry.getFood());
+	}
+
+	public long stamp() {
+		return invalidations.get();
+	}
+
+	public void put(FoodDTO food, long stamp) {
+		frequencies.increment(food.getId());
+		admit(food, stamp);
+	}
+
+	public void warm(FoodDTO food, int frequency, long stamp) {
+		frequencies.add(food.getId(), frequency);
+		admit(food, stamp);
+	}
+
+	public List<HotFood> hottest(int limit) {
+		return entries.values().stream()
+				.map(entry -> new HotFood(entry.getFood().getId(), frequencies.estimate(entry.getFood().getId())))
+				.sorted(Comparator.comparingInt(HotFood::getFrequency).reversed())
+				.limit(limit)
+				.collect(Collectors.toList());
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 *  Descarta todas as entradas, para quando o banco é alterado por fora dos services e nenhum
+	 *  FoodEvent é publicado. As frequências são mantidas.
+	 * */
+	public void clear() {
+		long invalidation = invalidations.incrementAndGet();
+		for (int stripe = 0; stripe < STAMP_STRIPES; stripe++) {
+			invalidatedAt.accumulateAndGet(stripe, invalidation, Math::max);
+		}
+		entries.clear();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFoodEvent(FoodEvent event) {
+		FoodDTO food = event.getFood();
+		invalidatedAt.accumulateAndGet(stripeOf(food), invalidations.incrementAndGet(), Math::max);
+		if (event.getType() == FoodEventType.DELETED) {
+			entries.remove(food.getName());
+		} else {
+			entries.computeIfPresent(food.getName(), (name, entry) -> new CacheEntry(food, clock.millis()));
+		}
+	}
+
+	private void admit(FoodDTO food, long stamp) {
+		if (invalidatedAt.get(stripeOf(food)) > stamp) {
+			return;
+		}
+		if (entries.putIfAbsent(food.getName(), new CacheEntry(food, clock.millis())) == null && entries.size() > maxEntries) {
+			evict(food);
+		}
+	}
+
+	private synchronized void evict(FoodDTO candidate) {
+		String victim = null;
+		int victimFrequency = Integer.MAX_VALUE;
+		for (int sampled = 0; sampled < EVICTION_SAMPLE_SIZE; sampled++) {
+			if (!evictionCursor.hasNext()) {
+				evictionCursor = entries.entrySet().iterator();
+				if (!evictionCursor.hasNext()) {
+					break;
+				}
+			}
+			Map.Entry<String, CacheEntry> entry = evictionCursor.next();
+			int frequency = frequencies.estimate(entry.getValue().getFood().getId());
+			if (!entry.getKey().equals(candidate.getName()) && frequency < victimFrequency) {
+				victim = entry.getKey();
+				victimFrequency = frequency;
+			}
+		}
+		entries.remove(victim == null || frequencies.estimate(candidate.getId()) < victimFrequency ? candidate.getName() : victim);
+	}
+
+	private static int stripeOf(FoodDTO food) {
+		return Math.floorMod(food.getId().hashCode(), STAMP_STRIPES);
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class HotFood {
+
+		private final long id;
+
+		private final int frequency;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class CacheEntry {
+
+		private final FoodDTO food;
+
+		private final long loadedAt;
+	}
+}
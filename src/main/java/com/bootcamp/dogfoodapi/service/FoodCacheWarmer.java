@@ -0,0 +1,193 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Snapshot dos foods mais acessados para aquecer o FoodCache no startup.
+ *
+ *  Periodicamente (e no shutdown) grava os top-k ids do cache com a frequência estimada num arquivo
+ *  binário: int mágico, int versão, int quantidade e, para cada food, long id e int frequência. No
+ *  startup lê o arquivo e busca os foods no banco em blocos, em paralelo; até terminar o health
+ *  fica OUT_OF_SERVICE (WarmupHealthIndicator). Só os ids vão para o arquivo, então o que entra no
+ *  cache é sempre o estado atual do banco. Sem dogfood.warmup.snapshot-file nada disso acontece.
+ * */
+@Slf4j
+@Lazy(false)
+@Service
+public class FoodCacheWarmer {
+
+	private static final int SNAPSHOT_MAGIC = 0x44464357;
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private final FoodRepository foodRepository;
+	private final FoodCache foodCache;
+	private final String snapshotFile;
+	private final int topK;
+	private final int parallelism;
+	private final int chunkSize;
+	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
+	private volatile boolean warm;
+
+	@Autowired
+	public FoodCacheWarmer(FoodRepository foodRepository, FoodCache foodCache,
+						   @Value("${dogfood.warmup.snapshot-file:}") String snapshotFile,
+						   @Value("${dogfood.warmup.top-k:1000}") int topK,
+						   @Value("${dogfood.warmup.parallelism:4}") int parallelism,
+						   @Value("${dogfood.warmup.chunk-size:100}") int chunkSize) {
+		this.foodRepository = foodRepository;
+		this.foodCache = foodCache;
+		this.snapshotFile = snapshotFile;
+		this.topK = topK;
+		this.parallelism = Math.max(1, parallelism);
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	public boolean isWarm() {
+		return warm;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		Thread warmup = new Thread(this::restore, "food-cache-warmup");
+		warmup.setDaemon(true);
+		warmup.start();
+	}
+
+	public void restore() {
+		long start = System.nanoTime();
+		try {
+			Map<Long, Integer> snapshot = readSnapshot();
+			int restored = load(snapshot);
+			if (!snapshot.isEmpty()) {
+				log.info("Food cache warmed with {} of {} foods in {} ms", restored, snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+			}
+		} catch (IOException | RuntimeException e) {
+			log.warn("Food cache snapshot {} could not be restored, starting cold", snapshotFile, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			warm = true;
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${dogfood.warmup.snapshot-millis:300000}", initialDelayString = "${dogfood.warmup.snapshot-millis:300000}")
+	public void writeSnapshot() throws IOException {
+		if (snapshotFile.isEmpty() || !warm) {
+			return;
+		}
+		List<FoodCache.HotFood> hottest = foodCache.hottest(topK);
+		if (hottest.isEmpty()) {
+			return;
+		}
+		File file = new File(snapshotFile);
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		File temporaryFile = new File(snapshotFile + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+			output.writeInt(SNAPSHOT_MAGIC);
+			output.writeInt(SNAPSHOT_VERSION);
+			output.writeInt(hottest.size());
+			for (FoodCache.HotFood hotFood : hottest) {
+				output.writeLong(hotFood.getId());
+				output.writeInt(hotFood.getFrequency());
+			}
+		}
+		Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@PreDestroy
+	public void writeFinalSnapshot() {
+		try {
+			writeSnapshot();
+		} catch (IOException e) {
+			log.warn("Food cache snapshot {} could not be written on shutdown", snapshotFile, e);
+		}
+	}
+
+	Map<Long, Integer> readSnapshot() throws IOException {
+		Map<Long, Integer> snapshot = new HashMap<>();
+		if (snapshotFile.isEmpty() || !new File(snapshotFile).exists()) {
+			return snapshot;
+		}
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+			if (input.readInt() != SNAPSHOT_MAGIC || input.readInt() != SNAPSHOT_VERSION) {
+				throw new IOException("Unknown food cache snapshot format");
+			}
+			int size = input.readInt();
+			for (int index = 0; index < size; index++) {
+				snapshot.put(input.readLong(), input.readInt());
+			}
+		}
+		return snapshot;
+	}
+
+	private int load(Map<Long, Integer> snapshot) throws InterruptedException {
+		if (snapshot.isEmpty()) {
+			return 0;
+		}
+		List<Long> ids = new ArrayList<>(snapshot.keySet());
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += chunkSize) {
+			chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+		try {
+			List<Future<Integer>> loads = new ArrayList<>(chunks.size());
+			for (List<Long> chunk : chunks) {
+				loads.add(executor.submit(() -> loadChunk(chunk, snapshot)));
+			}
+			int restored = 0;
+			for (Future<Integer> load : loads) {
+				try {
+					restored += load.get();
+				} catch (ExecutionException e) {
+					log.warn("Food cache warmup chunk failed", e.getCause());
+				}
+			}
+			return restored;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private int loadChunk(List<Long> ids, Map<Long, Integer> snapshot) {
+		long stamp = foodCache.stamp();
+		List<Food> foods = foodRepository.findAllById(ids);
+		for (Food food : foods) {
+			foodCache.warm(foodMapper.toDTO(food), snapshot.getOrDefault(food.getId(), 1), stamp);
+		}
+		return foods.size();
+	}
+}
@@ -0,0 +1,261 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ *  Índice em memória para a busca por nome e marca.
+ *
+ *  Cada campo guarda os tokens normalizados num mapa ordenado (busca por prefixo) e as
+ *  variações com uma letra removida de cada token (busca fuzzy com distância de edição 1).
+ *  O índice é carregado no startup e atualizado pelos eventos do FoodService depois do commit.
+ *  A carga segura o mesmo lock de index e remove, então um evento que chega durante a carga é aplicado
+ *  depois dela e uma página lida antes de um delete não traz o food de volta.
+ *
+ *  Em cada campo um termo pontua no máximo max-term-postings foods, primeiro os do token exato, depois os dos
+ *  prefixos e por último os fuzzy, então um termo comum ("mars", "a") não percorre o catálogo inteiro.
+ * */
+@Slf4j
+@Service
+public class FoodSearchIndex {
+
+	private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final int EXACT_SCORE = 4;
+	private static final int PREFIX_SCORE = 2;
+	private static final int FUZZY_SCORE = 1;
+	private static final int NAME_WEIGHT = 2;
+	private static final int BRAND_WEIGHT = 1;
+	private static final int MIN_FUZZY_TOKEN_LENGTH = 4;
+
+	private final FoodRepository foodRepository;
+	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
+	private final FieldIndex nameIndex = new FieldIndex();
+	private final FieldIndex brandIndex = new FieldIndex();
+	private final ConcurrentMap<Long, FoodDTO> indexedFoods = new ConcurrentHashMap<>();
+	private final int maxPrefixExpansions;
+	private final int maxTermPostings;
+	private final int pageSize;
+
+	@Autowired
+	public FoodSearchIndex(FoodRepository foodRepository,
+						   @Value("${dogfood.search.max-prefix-expansions:128}") int maxPrefixExpansions,
+						   @Value("${dogfood.search.max-term-postings:10000}") int maxTermPostings,
+						   @Value("${dogfood.search.rebuild-page-size:1000}") int pageSize) {
+		this.foodRepository = foodRepository;
+		this.maxPrefixExpansions = maxPrefixExpansions;
+		this.maxTermPostings = maxTermPostings;
+		this.pageSize = pageSize;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		Page<Food> page = foodRepository.findAll(PageRequest.of(0, pageSize, Sort.by("id")));
+		while (true) {
+			page.forEach(food -> index(foodMapper.toDTO(food)));
+			if (!page.hasNext()) {
+				break;
+			}
+			page = foodRepository.findAll(page.nextPageable());
+		}
+		log.info("Search index built with {} foods", indexedFoods.size());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFoodEvent(FoodEvent event) {
+		if (event.getType() == FoodEventType.DELETED) {
+			remove(event.getFood().getId());
+		} else if (event.getType() == FoodEventType.CREATED) {
+			index(event.getFood());
+		}
+	}
+
+	public synchronized void index(FoodDTO food) {
+		remove(food.getId());
+		FoodDTO indexedFood = FoodDTO.builder()
+				.id(food.getId())
+				.name(food.getName())
+				.brand(food.getBrand())
+				.build();
+		indexedFoods.put(food.getId(), indexedFood);
+		tokenize(food.getName()).forEach(token -> nameIndex.add(token, food.getId()));
+		tokenize(food.getBrand()).forEach(token -> brandIndex.add(token, food.getId()));
+	}
+
+	public synchronized void remove(Long id) {
+		FoodDTO indexedFood = indexedFoods.remove(id);
+		if (indexedFood != null) {
+			tokenize(indexedFood.getName()).forEach(token -> nameIndex.remove(token, id));
+			tokenize(indexedFood.getBrand()).forEach(token -> brandIndex.remove(token, id));
+		}
+	}
+
+	public List<Long> search(String query, int limit) {
+		List<String> terms = new ArrayList<>(tokenize(query));
+		if (terms.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<Long, Integer> scores = new HashMap<>();
+		for (int i = 0; i < terms.size(); i++) {
+			boolean lastTerm = i == terms.size() - 1;
+			nameIndex.score(terms.get(i), lastTerm, NAME_WEIGHT, scores);
+			brandIndex.score(terms.get(i), lastTerm, BRAND_WEIGHT, scores);
+		}
+		return topK(scores, limit);
+	}
+
+	private List<Long> topK(Map<Long, Integer> scores, int limit) {
+		PriorityQueue<Map.Entry<Long, Integer>> best = new PriorityQueue<>(limit + 1,
+				Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed()));
+		for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+			best.add(score);
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+		List<Long> rankedIds = new ArrayList<>(best.size());
+		while (!best.isEmpty()) {
+			rankedIds.add(best.poll().getKey());
+		}
+		Collections.reverse(rankedIds);
+		return rankedIds;
+	}
+
+	static Set<String> tokenize(String text) {
+		if (text == null) {
+			return Collections.emptySet();
+		}
+		String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+		return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+				.filter(token -> !token.isEmpty())
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	private static Set<String> deletes(String token) {
+		Set<String> variants = new LinkedHashSet<>();
+		for (int i = 0; i < token.length(); i++) {
+			variants.add(token.substring(0, i) + token.substring(i + 1));
+		}
+		return variants;
+	}
+
+	static boolean withinOneEdit(String first, String second) {
+		int lengthDifference = first.length() - second.length();
+		if (Math.abs(lengthDifference) > 1) {
+			return false;
+		}
+		String longer = lengthDifference >= 0 ? first : second;
+		String shorter = lengthDifference >= 0 ? second : first;
+		int i = 0;
+		while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+			i++;
+		}
+		if (i == shorter.length()) {
+			return true;
+		}
+		if (longer.length() == shorter.length()) {
+			return longer.substring(i + 1).equals(shorter.substring(i + 1));
+		}
+		return longer.substring(i + 1).equals(shorter.substring(i));
+	}
+
+	private class FieldIndex {
+
+		private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+		private final ConcurrentMap<String, Set<String>> variants = new ConcurrentHashMap<>();
+
+		void add(String token, Long id) {
+			postings.computeIfAbsent(token, key -> {
+				if (key.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+					deletes(key).forEach(variant -> variants.computeIfAbsent(variant, v -> ConcurrentHashMap.newKeySet()).add(key));
+				}
+				return ConcurrentHashMap.newKeySet();
+			}).add(id);
+		}
+
+		void remove(String token, Long id) {
+			postings.computeIfPresent(token, (key, ids) -> {
+				ids.remove(id);
+				if (!ids.isEmpty()) {
+					return ids;
+				}
+				if (key.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+					deletes(key).forEach(variant -> variants.computeIfPresent(variant, (v, tokens) -> {
+						tokens.remove(key);
+						return tokens.isEmpty() ? null : tokens;
+					}));
+				}
+				return null;
+			});
+		}
+
+		void score(String term, boolean prefix, int weight, Map<Long, Integer> scores) {
+			Map<Long, Integer> termScores = new HashMap<>();
+			if (prefix) {
+				postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet().stream()
+						.limit(maxPrefixExpansions)
+						.forEach(entry -> accumulate(entry.getValue(),
+								entry.getKey().equals(term) ? EXACT_SCORE : PREFIX_SCORE, termScores));
+			} else {
+				accumulate(postings.getOrDefault(term, Collections.emptySet()), EXACT_SCORE, termScores);
+			}
+			if (term.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+				fuzzyMatches(term).forEach(token -> accumulate(postings.getOrDefault(token, Collections.emptySet()),
+						FUZZY_SCORE, termScores));
+			}
+			termScores.forEach((id, score) -> scores.merge(id, score * weight, Integer::sum));
+		}
+
+		private Set<String> fuzzyMatches(String term) {
+			Set<String> candidates = new LinkedHashSet<>(variants.getOrDefault(term, Collections.emptySet()));
+			for (String variant : deletes(term)) {
+				if (postings.containsKey(variant)) {
+					candidates.add(variant);
+				}
+				candidates.addAll(variants.getOrDefault(variant, Collections.emptySet()));
+			}
+			candidates.remove(term);
+			candidates.removeIf(candidate -> !withinOneEdit(term, candidate));
+			return candidates;
+		}
+
+		private void accumulate(Set<Long> ids, int score, Map<Long, Integer> termScores) {
+			for (Long id : ids) {
+				if (termScores.size() >= maxTermPostings && !termScores.containsKey(id)) {
+					return;
+				}
+				termScores.merge(id, score, Math::max);
+			}
+		}
+	}
+}
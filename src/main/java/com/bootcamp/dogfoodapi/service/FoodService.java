@@ -2,17 +2,31 @@ package com.bootcamp.dogfoodapi.service;
 
 import lombok.AllArgsConstructor;
 import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
 import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
 import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
 import com.bootcamp.dogfoodapi.exception.FoodAlreadyRegisteredException;
 import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.InvalidFoodFilterException;
 import com.bootcamp.dogfoodapi.mapper.FoodMapper;
 import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -31,21 +45,43 @@ import java.util.stream.Collectors;
  * */
 public class FoodService {
 
+	private static final int MAX_SEARCH_RESULTS = 100;
+	private static final int DELETE_CHUNK_SIZE = 50;
+
 	private final FoodRepository foodRepository;
+	private final StockHistoryBucketRepository stockHistoryBucketRepository;
+	private final StockCommitCoalescer stockCommitCoalescer;
+	private final FoodSearchIndex foodSearchIndex;
+	private final FoodCache foodCache;
+	private final StockHolds stockHolds;
+	private final ApplicationEventPublisher applicationEventPublisher;
+	private final TransactionOperations transactionOperations;
 	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
 
+	@Transactional
 	public FoodDTO createFood(FoodDTO foodDTO) throws FoodAlreadyRegisteredException {
 		verifyIsAlreadyRegistered(foodDTO.getName());
 		Food food = foodMapper.toModel(foodDTO);
 		Food saveFood = foodRepository.save(food);
-		return foodMapper.toDTO(saveFood);
+		FoodDTO savedFoodDTO = foodMapper.toDTO(saveFood);
+		applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.CREATED, savedFoodDTO, savedFoodDTO.getQuantity(), 0));
+		return savedFoodDTO;
 	}
 
+	@Transactional(readOnly = true)
 	public FoodDTO findByName(String name) throws FoodNotFoundException {
+		Optional<FoodDTO> cachedFood = foodCache.get(name);
+		if (cachedFood.isPresent()) {
+			return cachedFood.get();
+		}
+		long stamp = foodCache.stamp();
 		Food foundFood = foodRepository.findByName(name).orElseThrow(()-> new FoodNotFoundException(name));
-		return foodMapper.toDTO(foundFood);
+		FoodDTO foundFoodDTO = foodMapper.toDTO(foundFood);
+		foodCache.put(foundFoodDTO, stamp);
+		return foundFoodDTO;
 	}
 
+	@Transactional(readOnly = true)
 	public List<FoodDTO> listAll() {
 		return foodRepository.findAll()
 				.stream()
@@ -53,42 +89,165 @@ public class FoodService {
 				.collect(Collectors.toList());
 	}
 
+	@Transactional(readOnly = true)
+	public List<FoodDTO> search(String query, int limit) {
+		List<Long> rankedIds = foodSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+		Map<Long, Food> foundFoods = foodRepository.findAllById(rankedIds)
+				.stream()
+				.collect(Collectors.toMap(Food::getId, Function.identity()));
+		return rankedIds.stream()
+				.filter(foundFoods::containsKey)
+				.map(id -> foodMapper.toDTO(foundFoods.get(id)))
+				.collect(Collectors.toList());
+	}
+
+	@Transactional
 	public void deleteById(Long id) throws FoodNotFoundException {
-		veifyIfExists(id);
-		foodRepository.deleteById(id);
+		Food foodToDelete = veifyIfExists(id);
+		markAsDeleted(foodToDelete);
+	}
+
+	/**
+	 *  Apaga em lotes de DELETE_CHUNK_SIZE, cada lote na sua transação: um SELECT ... FOR UPDATE,
+	 *  um único UPDATE para todos os tombstones e os statements dos eventos DELETED (estoque por
+	 *  local e outbox). Um filtro que pega o catálogo inteiro nunca vira uma transação gigante
+	 *  segurando todas as linhas.
+	 * */
+	public int deleteByFilter(String brand, FoodType type) throws InvalidFoodFilterException {
+		if (brand == null && type == null) {
+			throw new InvalidFoodFilterException();
+		}
+		int deleted = 0;
+		int chunk;
+		do {
+			chunk = transactionOperations.execute(status -> deleteChunk(brand, type));
+			deleted += chunk;
+		} while (chunk == DELETE_CHUNK_SIZE);
+		return deleted;
+	}
+
+	private int deleteChunk(String brand, FoodType type) {
+		List<Food> foodsToDelete = foodRepository.findForUpdateByFilter(brand, type, PageRequest.of(0, DELETE_CHUNK_SIZE));
+		if (foodsToDelete.isEmpty()) {
+			return 0;
+		}
+		foodRepository.markAsDeleted(foodsToDelete.stream().map(Food::getId).collect(Collectors.toList()), Instant.now());
+		foodsToDelete.forEach(food -> applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.DELETED, foodMapper.toDTO(food))));
+		return foodsToDelete.size();
+	}
+
+	/**
+	 *  Soft delete: só marca o tombstone (um UPDATE) e publica o DELETED; a linha é removida
+	 *  depois, em lotes pequenos, pelo FoodTombstonePurger.
+	 * */
+	private void markAsDeleted(Food foodToDelete) {
+		foodToDelete.setDeleted(true);
+		foodToDelete.setDeletedAt(Instant.now());
+		foodRepository.save(foodToDelete);
+		applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.DELETED, foodMapper.toDTO(foodToDelete)));
 	}
 
 	private Food veifyIfExists(Long id) throws FoodNotFoundException {
-		return foodRepository.findById(id).orElseThrow(() -> new FoodNotFoundException(id));
+		return foodRepository.findForUpdateById(id).orElseThrow(() -> new FoodNotFoundException(id));
 	}
-	
 
 	private void verifyIsAlreadyRegistered(String name) throws FoodAlreadyRegisteredException {
-		Optional<Food> optSavedFood = foodRepository.findByName(name);
-		if(optSavedFood.isPresent()) {
+		Optional<Food> optSavedFood = foodRepository.findIncludingDeletedByName(name);
+		if(optSavedFood.isEmpty()) {
+			return;
+		}
+		if(!optSavedFood.get().isDeleted()) {
 			throw new FoodAlreadyRegisteredException(name);
 		}
+		// O tombstone ainda não purgado seguraria o nome único; sai antes do INSERT, junto com o histórico.
+		// Eventos ainda no outbox ficam: levam o food no payload e o relay os apaga depois de entregar.
+		Long deletedFoodId = optSavedFood.get().getId();
+		stockHistoryBucketRepository.deleteByFoodIdIn(List.of(deletedFoodId));
+		foodRepository.purgeDeleted(deletedFoodId);
 	}
 
 	public FoodDTO increment(Long id, int quantityToIncrement) throws FoodNotFoundException, FoodStockExceededException {
-		Food footToIncrementStock = veifyIfExists(id);
+		return orElseThrow(id, quantityToIncrement, tryIncrement(id, quantityToIncrement));
+	}
+
+	public FoodDTO decrement(Long id, int quantityToDecrement) throws  FoodNotFoundException, FoodStockExceededException {
+		return orElseThrow(id, quantityToDecrement, tryDecrement(id, quantityToDecrement));
+	}
+
+	/**
+	 *  Versões de increment e decrement sem exceção: food inexistente e estoque excedido são
+	 *  resultados esperados (NOT_FOUND e STOCK_EXCEEDED), não erros.
+	 *
+	 *  Não são @Transactional: com o group commit ligado a chamada fica parada a janela do lote e
+	 *  o lote é gravado pelo StockBatchService numa transação própria, que já terminou quando o
+	 *  resultado volta. Sem o group commit a leitura e a escrita rodam numa transação de escrita.
+	 * */
+	public StockMutationResult tryIncrement(Long id, int quantityToIncrement) {
+		if (stockCommitCoalescer.isEnabled()) {
+			return stockCommitCoalescer.apply(id, quantityToIncrement);
+		}
+		return transactionOperations.execute(status -> incrementInTransaction(id, quantityToIncrement));
+	}
+
+	public StockMutationResult tryDecrement(Long id, int quantityToDecrement) {
+		if (stockCommitCoalescer.isEnabled()) {
+			return stockCommitCoalescer.apply(id, -quantityToDecrement);
+		}
+		return transactionOperations.execute(status -> decrementInTransaction(id, quantityToDecrement, 0));
+	}
+
+	/**
+	 *  Decrement do commit de uma reserva: pode usar as próprias quantityToDecrement unidades
+	 *  seguradas, que só são liberadas no StockHolds depois. Não passa pelo group commit.
+	 * */
+	public FoodDTO decrementReserved(Long id, int quantityToDecrement) throws FoodNotFoundException, FoodStockExceededException {
+		return orElseThrow(id, quantityToDecrement,
+				transactionOperations.execute(status -> decrementInTransaction(id, quantityToDecrement, quantityToDecrement)));
+	}
+
+	private StockMutationResult incrementInTransaction(Long id, int quantityToIncrement) {
+		Optional<Food> optFoodToIncrementStock = foodRepository.findForUpdateById(id);
+		if (optFoodToIncrementStock.isEmpty()) {
+			return new StockMutationResult(StockMutationStatus.NOT_FOUND, null);
+		}
+		Food footToIncrementStock = optFoodToIncrementStock.get();
 		int quanityAfterIncrement = quantityToIncrement + footToIncrementStock.getQuantity();
 			if(quanityAfterIncrement <= footToIncrementStock.getMax()) {
 				footToIncrementStock.setQuantity(footToIncrementStock.getQuantity() + quantityToIncrement);
 				Food incrementFoodStock = foodRepository.save(footToIncrementStock);
-				return foodMapper.toDTO(incrementFoodStock);
+				FoodDTO incrementedFoodDTO = foodMapper.toDTO(incrementFoodStock);
+				applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, incrementedFoodDTO, quantityToIncrement, 0));
+				return new StockMutationResult(StockMutationStatus.APPLIED, incrementedFoodDTO);
 			}
-			throw new FoodStockExceededException(id, quantityToIncrement);
+			return new StockMutationResult(StockMutationStatus.STOCK_EXCEEDED, null);
 	}
 
-	public FoodDTO decrement(Long id, int quantityToDecrement) throws  FoodNotFoundException, FoodStockExceededException {
-		Food foodToDecrementStock = veifyIfExists(id);
+	private StockMutationResult decrementInTransaction(Long id, int quantityToDecrement, int ownHeld) {
+		Optional<Food> optFoodToDecrementStock = foodRepository.findForUpdateById(id);
+		if (optFoodToDecrementStock.isEmpty()) {
+			return new StockMutationResult(StockMutationStatus.NOT_FOUND, null);
+		}
+		Food foodToDecrementStock = optFoodToDecrementStock.get();
 		int foodStockAfterDecremented = foodToDecrementStock.getQuantity() - quantityToDecrement;
-		if(foodStockAfterDecremented >= 0){
+		int held = stockHolds.heldOf(id) - ownHeld;
+		if(foodStockAfterDecremented >= foodToDecrementStock.getAllocatedQuantity() + held){
 			foodToDecrementStock .setQuantity(foodStockAfterDecremented);
 			Food decrementedFoodStock = foodRepository.save(foodToDecrementStock);
-			return  foodMapper.toDTO(decrementedFoodStock);
+			FoodDTO decrementedFoodDTO = foodMapper.toDTO(decrementedFoodStock);
+			applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, decrementedFoodDTO, 0, quantityToDecrement));
+			return new StockMutationResult(StockMutationStatus.APPLIED, decrementedFoodDTO);
+		}
+		return new StockMutationResult(StockMutationStatus.STOCK_EXCEEDED, null);
+	}
+
+	private static FoodDTO orElseThrow(Long id, int quantity, StockMutationResult result) throws FoodNotFoundException, FoodStockExceededException {
+		switch (result.getStatus()) {
+			case APPLIED:
+				return result.getFood();
+			case NOT_FOUND:
+				throw new FoodNotFoundException(id);
+			default:
+				throw new FoodStockExceededException(id, quantity);
 		}
-		throw new FoodStockExceededException(id, quantityToDecrement);
 	}
 }
@@ -0,0 +1,224 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodStockDTO;
+import com.bootcamp.dogfoodapi.dto.LocationStockDTO;
+import com.bootcamp.dogfoodapi.dto.StockTransferDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.entity.FoodStock;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.InvalidLocationException;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.FoodStockRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ *  Estoque de um food por local (armazém).
+ *
+ *  Food.quantity continua sendo o total global e Food.allocatedQuantity a soma dos locais com linha
+ *  em FoodStock; o local padrão é o restante e não tem linha. Assim os totais são mantidos a cada
+ *  alteração (nada é somado por requisição) e o increment/decrement sem local continua valendo
+ *  para o local padrão. O max do food vale para o total.
+ *
+ *  Toda alteração lê o food com lock de escrita (as do local padrão também, no FoodService e no
+ *  StockBatchService), então quantity e allocatedQuantity nunca são gravados a partir de uma
+ *  leitura velha e duas primeiras escritas no mesmo local novo não disputam a constraint única.
+ * */
+@Service
+public class FoodStockService {
+
+	private static final int MAX_LOCATION_LENGTH = 50;
+	private static final int REBALANCE_CHUNK_SIZE = 500;
+
+	private final FoodRepository foodRepository;
+	private final FoodStockRepository foodStockRepository;
+	private final FoodService foodService;
+	private final ApplicationEventPublisher applicationEventPublisher;
+	private final String defaultLocation;
+	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
+
+	@Autowired
+	public FoodStockService(FoodRepository foodRepository, FoodStockRepository foodStockRepository, FoodService foodService,
+							ApplicationEventPublisher applicationEventPublisher,
+							@Value("${dogfood.stock.default-location:default}") String defaultLocation) {
+		this.foodRepository = foodRepository;
+		this.foodStockRepository = foodStockRepository;
+		this.foodService = foodService;
+		this.applicationEventPublisher = applicationEventPublisher;
+		this.defaultLocation = defaultLocation;
+	}
+
+	@Transactional(readOnly = true)
+	public FoodStockDTO stockOf(Long foodId) throws FoodNotFoundException {
+		return toDTO(verifyIfExists(foodId));
+	}
+
+	@Transactional
+	public FoodStockDTO increment(Long foodId, String location, int quantityToIncrement)
+			throws FoodNotFoundException, FoodStockExceededException, InvalidLocationException {
+		String normalizedLocation = normalize(location);
+		if (normalizedLocation.equals(defaultLocation)) {
+			foodService.increment(foodId, quantityToIncrement);
+			return stockOf(foodId);
+		}
+		Food food = lockIfExists(foodId);
+		if (food.getQuantity() + quantityToIncrement > food.getMax()) {
+			throw new FoodStockExceededException(foodId, quantityToIncrement);
+		}
+		FoodStock foodStock = foodStockRepository.findByFoodIdAndLocation(foodId, normalizedLocation)
+				.orElseGet(() -> new FoodStock(null, foodId, normalizedLocation, 0));
+		foodStock.setQuantity(foodStock.getQuantity() + quantityToIncrement);
+		return save(food, foodStock, quantityToIncrement, 0);
+	}
+
+	@Transactional
+	public FoodStockDTO decrement(Long foodId, String location, int quantityToDecrement)
+			throws FoodNotFoundException, FoodStockExceededException, InvalidLocationException {
+		String normalizedLocation = normalize(location);
+		if (normalizedLocation.equals(defaultLocation)) {
+			foodService.decrement(foodId, quantityToDecrement);
+			return stockOf(foodId);
+		}
+		Food food = lockIfExists(foodId);
+		FoodStock foodStock = foodStockRepository.findByFoodIdAndLocation(foodId, normalizedLocation)
+				.filter(stock -> stock.getQuantity() >= quantityToDecrement)
+				.orElseThrow(() -> new FoodStockExceededException(foodId, quantityToDecrement));
+		foodStock.setQuantity(foodStock.getQuantity() - quantityToDecrement);
+		return save(food, foodStock, 0, quantityToDecrement);
+	}
+
+	/**
+	 *  Transferências que deixam cada local com pelo menos minimum unidades de cada food que ele
+	 *  estoca, tirando dos locais com sobra. O banco devolve só os estoques abaixo de minimum e,
+	 *  para os foods deles, os acima de minimum (em lotes de REBALANCE_CHUNK_SIZE ids), então a
+	 *  leitura cresce com os desequilíbrios e não com o catálogo; estoques iguais a minimum e foods
+	 *  sem falta em nenhum local nunca saem do banco.
+	 * */
+	@Transactional(readOnly = true)
+	public List<StockTransferDTO> rebalance(int minimum) {
+		List<Imbalance> imbalances = new ArrayList<>();
+		foodRepository.findDefaultStockBelow(minimum).forEach(food -> imbalances.add(defaultImbalance(food, minimum)));
+		foodStockRepository.findByQuantityLessThanOrderByFoodId(minimum).forEach(foodStock -> imbalances.add(imbalance(foodStock, minimum)));
+		List<Long> foodIds = imbalances.stream().map(Imbalance::getFoodId).distinct().collect(Collectors.toList());
+		for (int from = 0; from < foodIds.size(); from += REBALANCE_CHUNK_SIZE) {
+			List<Long> chunk = foodIds.subList(from, Math.min(foodIds.size(), from + REBALANCE_CHUNK_SIZE));
+			foodRepository.findDefaultStockAbove(minimum, chunk).forEach(food -> imbalances.add(defaultImbalance(food, minimum)));
+			foodStockRepository.findByFoodIdInAndQuantityGreaterThan(chunk, minimum).forEach(foodStock -> imbalances.add(imbalance(foodStock, minimum)));
+		}
+		return plan(imbalances);
+	}
+
+	@EventListener
+	public void onFoodEvent(FoodEvent event) {
+		if (event.getType() == FoodEventType.DELETED) {
+			foodStockRepository.deleteByFoodId(event.getFood().getId());
+		}
+	}
+
+	private FoodStockDTO save(Food food, FoodStock foodStock, int unitsAdded, int unitsRemoved) {
+		int quantityDelta = unitsAdded - unitsRemoved;
+		food.setQuantity(food.getQuantity() + quantityDelta);
+		food.setAllocatedQuantity(food.getAllocatedQuantity() + quantityDelta);
+		foodStockRepository.save(foodStock);
+		Food savedFood = foodRepository.save(food);
+		applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodMapper.toDTO(savedFood), unitsAdded, unitsRemoved));
+		return toDTO(savedFood);
+	}
+
+	private FoodStockDTO toDTO(Food food) {
+		List<LocationStockDTO> locations = new ArrayList<>();
+		locations.add(new LocationStockDTO(defaultLocation, food.getQuantity() - food.getAllocatedQuantity()));
+		foodStockRepository.findByFoodIdOrderByLocation(food.getId())
+				.forEach(foodStock -> locations.add(new LocationStockDTO(foodStock.getLocation(), foodStock.getQuantity())));
+		return FoodStockDTO.builder()
+				.foodId(food.getId())
+				.max(food.getMax())
+				.quantity(food.getQuantity())
+				.locations(locations)
+				.build();
+	}
+
+	private String normalize(String location) throws InvalidLocationException {
+		String normalizedLocation = location == null ? "" : location.trim().toLowerCase(Locale.ROOT);
+		if (normalizedLocation.isEmpty() || normalizedLocation.length() > MAX_LOCATION_LENGTH) {
+			throw new InvalidLocationException(location);
+		}
+		return normalizedLocation;
+	}
+
+	private Food verifyIfExists(Long foodId) throws FoodNotFoundException {
+		return foodRepository.findById(foodId).orElseThrow(() -> new FoodNotFoundException(foodId));
+	}
+
+	private Food lockIfExists(Long foodId) throws FoodNotFoundException {
+		return foodRepository.findForUpdateById(foodId).orElseThrow(() -> new FoodNotFoundException(foodId));
+	}
+
+	private Imbalance defaultImbalance(Food food, int minimum) {
+		return new Imbalance(food.getId(), defaultLocation, food.getQuantity() - food.getAllocatedQuantity() - minimum);
+	}
+
+	private static Imbalance imbalance(FoodStock foodStock, int minimum) {
+		return new Imbalance(foodStock.getFoodId(), foodStock.getLocation(), foodStock.getQuantity() - minimum);
+	}
+
+	private static List<StockTransferDTO> plan(List<Imbalance> imbalances) {
+		Map<Long, List<Imbalance>> imbalancesByFood = imbalances.stream()
+				.collect(Collectors.groupingBy(Imbalance::getFoodId, TreeMap::new, Collectors.toList()));
+		List<StockTransferDTO> transfers = new ArrayList<>();
+		imbalancesByFood.forEach((foodId, foodImbalances) -> {
+			List<Imbalance> surpluses = foodImbalances.stream()
+					.filter(imbalance -> imbalance.getDelta() > 0)
+					.sorted(Comparator.comparingInt(Imbalance::getDelta).reversed().thenComparing(Imbalance::getLocation))
+					.collect(Collectors.toList());
+			List<Imbalance> deficits = foodImbalances.stream()
+					.filter(imbalance -> imbalance.getDelta() < 0)
+					.sorted(Comparator.comparingInt(Imbalance::getDelta).thenComparing(Imbalance::getLocation))
+					.collect(Collectors.toList());
+			int surplusIndex = 0;
+			int surplusLeft = surpluses.isEmpty() ? 0 : surpluses.get(0).getDelta();
+			for (Imbalance deficit : deficits) {
+				int deficitLeft = -deficit.getDelta();
+				while (deficitLeft > 0 && surplusIndex < surpluses.size()) {
+					int quantity = Math.min(deficitLeft, surplusLeft);
+					transfers.add(new StockTransferDTO(foodId, surpluses.get(surplusIndex).getLocation(), deficit.getLocation(), quantity));
+					deficitLeft -= quantity;
+					surplusLeft -= quantity;
+					if (surplusLeft == 0 && ++surplusIndex < surpluses.size()) {
+						surplusLeft = surpluses.get(surplusIndex).getDelta();
+					}
+				}
+			}
+		});
+		return transfers;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class Imbalance {
+
+		private final Long foodId;
+
+		private final String location;
+
+		private final int delta;
+	}
+}
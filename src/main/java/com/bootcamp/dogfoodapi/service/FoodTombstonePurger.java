@@ -0,0 +1,104 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ *  Remove do banco os foods marcados como apagados (soft delete do FoodService).
+ *
+ *  Cada rodada apaga no máximo max-batches lotes de batch-size tombstones com mais de
+ *  retention-seconds, cada lote na sua transação e com uma pausa entre eles, para que uma
+ *  limpeza grande do catálogo nunca segure a tabela por muito tempo. O que sobrar fica para a
+ *  próxima rodada. O histórico gravado (StockHistoryBucket) sai na mesma transação do food; o
+ *  estoque por local já saiu no soft delete e os eventos do outbox seguram o purge até serem
+ *  entregues.
+ * */
+@Slf4j
+@Lazy(false)
+@Service
+public class FoodTombstonePurger {
+
+	private final FoodRepository foodRepository;
+	private final StockHistoryBucketRepository stockHistoryBucketRepository;
+	private final TransactionOperations transactionOperations;
+	private final Duration retention;
+	private final int batchSize;
+	private final int maxBatches;
+	private final long pauseMillis;
+	private final Clock clock;
+
+	@Autowired
+	public FoodTombstonePurger(FoodRepository foodRepository, StockHistoryBucketRepository stockHistoryBucketRepository,
+							   TransactionOperations transactionOperations,
+							   @Value("${dogfood.purge.retention-seconds:60}") long retentionSeconds,
+							   @Value("${dogfood.purge.batch-size:100}") int batchSize,
+							   @Value("${dogfood.purge.max-batches:10}") int maxBatches,
+							   @Value("${dogfood.purge.pause-millis:50}") long pauseMillis) {
+		this(foodRepository, stockHistoryBucketRepository, transactionOperations, retentionSeconds, batchSize, maxBatches, pauseMillis,
+				Clock.systemUTC());
+	}
+
+	FoodTombstonePurger(FoodRepository foodRepository, StockHistoryBucketRepository stockHistoryBucketRepository,
+						TransactionOperations transactionOperations, long retentionSeconds, int batchSize, int maxBatches,
+						long pauseMillis, Clock clock) {
+		this.foodRepository = foodRepository;
+		this.stockHistoryBucketRepository = stockHistoryBucketRepository;
+		this.transactionOperations = transactionOperations;
+		this.retention = Duration.ofSeconds(retentionSeconds);
+		this.batchSize = Math.max(1, batchSize);
+		this.maxBatches = Math.max(1, maxBatches);
+		this.pauseMillis = pauseMillis;
+		this.clock = clock;
+	}
+
+	@Scheduled(fixedDelayString = "${dogfood.purge.interval-millis:10000}")
+	public int purge() {
+		Instant deletedBefore = clock.instant().minus(retention);
+		int purged = 0;
+		for (int batch = 0; batch < maxBatches; batch++) {
+			int removed = transactionOperations.execute(status -> purgeBatch(deletedBefore));
+			purged += removed;
+			if (removed < batchSize || batch == maxBatches - 1 || !pause()) {
+				break;
+			}
+		}
+		if (purged > 0) {
+			log.debug("Purged {} deleted foods", purged);
+		}
+		return purged;
+	}
+
+	private int purgeBatch(Instant deletedBefore) {
+		List<Long> foodIds = foodRepository.findPurgeableIds(deletedBefore, batchSize);
+		if (foodIds.isEmpty()) {
+			return 0;
+		}
+		stockHistoryBucketRepository.deleteByFoodIdIn(foodIds);
+		return foodRepository.purgeDeleted(foodIds);
+	}
+
+	private boolean pause() {
+		if (pauseMillis <= 0) {
+			return true;
+		}
+		try {
+			Thread.sleep(pauseMillis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.exception.IdempotencyKeyReusedException;
+import com.bootcamp.dogfoodapi.exception.IdempotentRequestInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ *  Guarda a resposta das operações que recebem o header Idempotency-Key,
+ *  para que um retry do cliente devolva a mesma resposta sem executar a operação de novo.
+ *
+ *  As chaves são guardadas como um hash de 64 bits (escopo + chave) num ConcurrentHashMap, junto com
+ *  a impressão digital do corpo da requisição: reusar a chave com outro corpo é recusado em vez de
+ *  devolver a resposta de outra operação. Locks (lock-timeout-seconds) e respostas (ttl-seconds) têm
+ *  filas de expiração separadas, cada uma em ordem de vencimento, então um lock recente não segura
+ *  a expiração das respostas antigas e vice-versa. Há limite de entradas e, opcionalmente, o
+ *  conteúdo é persistido em arquivo no shutdown e recarregado no startup.
+ *
+ *  O limite (max-entries) precisa ser pelo menos chaves por segundo x ttl-seconds: abaixo disso as
+ *  respostas mais antigas saem antes do TTL, o retry delas executa a operação de novo, e o serviço
+ *  loga um aviso (no máximo um por minuto) e conta essas saídas em earlyEvictions. Cada entrada
+ *  custa na ordem de 300 a 400 bytes com a resposta, então o padrão de 1.000.000 (uns 350MB no
+ *  pior caso) cobre cerca de 280 chaves por segundo com o TTL de uma hora; para milhões de chaves
+ *  por hora, suba o limite junto com o heap ou baixe o TTL.
+ * */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final long FULL_WARNING_INTERVAL_MILLIS = 60_000;
+
+	private final Map<Long, IdempotencyRecord> records = new ConcurrentHashMap<>();
+	private final Queue<IdempotencyRecord> lockExpirations = new ConcurrentLinkedQueue<>();
+	private final Queue<IdempotencyRecord> responseExpirations = new ConcurrentLinkedQueue<>();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final long lockTimeoutMillis;
+	private final String snapshotFile;
+	private final Clock clock;
+	private long earlyEvictions;
+	private long lastFullWarningMillis = Long.MIN_VALUE / 2;
+
+	@Autowired
+	public IdempotencyService(@Value("${dogfood.idempotency.max-entries:1000000}") int maxEntries,
+							  @Value("${dogfood.idempotency.ttl-seconds:3600}") long ttlSeconds,
+							  @Value("${dogfood.idempotency.lock-timeout-seconds:30}") long lockTimeoutSeconds,
+							  @Value("${dogfood.idempotency.snapshot-file:}") String snapshotFile) {
+		this(maxEntries, ttlSeconds, lockTimeoutSeconds, snapshotFile, Clock.systemUTC());
+	}
+
+	IdempotencyService(int maxEntries, long ttlSeconds, long lockTimeoutSeconds, String snapshotFile, Clock clock) {
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlSeconds * 1000;
+		this.lockTimeoutMillis = lockTimeoutSeconds * 1000;
+		this.snapshotFile = snapshotFile;
+		this.clock = clock;
+	}
+
+	public Optional<FoodDTO> findOrLock(String idempotencyKey, String scope, Object request)
+			throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		if (idempotencyKey == null) {
+			return Optional.empty();
+		}
+		long now = clock.millis();
+		long keyHash = hash(idempotencyKey, scope);
+		IdempotencyRecord lock = new IdempotencyRecord(keyHash, fingerprint(request), now + lockTimeoutMillis, null);
+		IdempotencyRecord record = records.compute(keyHash,
+				(key, existing) -> existing != null && existing.getExpiresAt() > now ? existing : lock);
+		if (record == lock) {
+			lockExpirations.add(lock);
+			evict(now);
+			return Optional.empty();
+		}
+		if (record.getFingerprint() != lock.getFingerprint()) {
+			throw new IdempotencyKeyReusedException(idempotencyKey);
+		}
+		if (record.getResponse() == null) {
+			throw new IdempotentRequestInProgressException(idempotencyKey);
+		}
+		return Optional.of(record.getResponse());
+	}
+
+	public void store(String idempotencyKey, String scope, Object request, FoodDTO response) {
+		if (idempotencyKey == null) {
+			return;
+		}
+		long now = clock.millis();
+		long keyHash = hash(idempotencyKey, scope);
+		IdempotencyRecord record = new IdempotencyRecord(keyHash, fingerprint(request), now + ttlMillis, response);
+		records.put(keyHash, record);
+		responseExpirations.add(record);
+		evict(now);
+	}
+
+	public void unlock(String idempotencyKey, String scope) {
+		if (idempotencyKey == null) {
+			return;
+		}
+		records.computeIfPresent(hash(idempotencyKey, scope),
+				(key, record) -> record.getResponse() == null ? null : record);
+	}
+
+	public int size() {
+		return records.size();
+	}
+
+	/**
+	 *  Chaves que saíram por falta de espaço antes do TTL; um retry delas executa a operação de novo.
+	 * */
+	public synchronized long earlyEvictions() {
+		return earlyEvictions;
+	}
+
+	@PostConstruct
+	public void loadSnapshot() throws IOException {
+		if (snapshotFile.isEmpty() || !new File(snapshotFile).exists()) {
+			return;
+		}
+		List<IdempotencyRecord> snapshot = objectMapper.readValue(new File(snapshotFile),
+				new TypeReference<List<IdempotencyRecord>>() {});
+		long now = clock.millis();
+		snapshot.stream()
+				.filter(record -> record.getExpiresAt() > now)
+				.sorted(Comparator.comparingLong(IdempotencyRecord::getExpiresAt))
+				.forEach(record -> {
+					records.put(record.getKeyHash(), record);
+					responseExpirations.add(record);
+				});
+		evict(now);
+	}
+
+	@PreDestroy
+	public void writeSnapshot() throws IOException {
+		if (snapshotFile.isEmpty()) {
+			return;
+		}
+		List<IdempotencyRecord> snapshot = records.values().stream()
+				.filter(record -> record.getResponse() != null)
+				.collect(Collectors.toList());
+		objectMapper.writeValue(new File(snapshotFile), snapshot);
+	}
+
+	/**
+	 *  Cada fila está em ordem de vencimento, então basta olhar a cabeça. Uma entrada da fila que
+	 *  não é mais a do mapa (o lock virou resposta ou foi liberado) só sai da fila.
+	 *  Acima de max-entries saem as respostas mais antigas e, se não houver, os locks mais antigos.
+	 * */
+	private synchronized void evict(long now) {
+		evictExpired(lockExpirations, now);
+		evictExpired(responseExpirations, now);
+		int evictedEarly = 0;
+		while (records.size() > maxEntries) {
+			if (!evictEldest(responseExpirations) && !evictEldest(lockExpirations)) {
+				break;
+			}
+			evictedEarly++;
+		}
+		if (evictedEarly > 0) {
+			earlyEvictions += evictedEarly;
+			if (now - lastFullWarningMillis >= FULL_WARNING_INTERVAL_MILLIS) {
+				lastFullWarningMillis = now;
+				log.warn("Idempotency store is full with {} entries and has evicted {} keys before their TTL; "
+						+ "set dogfood.idempotency.max-entries to at least keys per second x ttl-seconds", maxEntries, earlyEvictions);
+			}
+		}
+	}
+
+	private void evictExpired(Queue<IdempotencyRecord> expirations, long now) {
+		IdempotencyRecord eldest;
+		while ((eldest = expirations.peek()) != null && eldest.getExpiresAt() <= now) {
+			expirations.poll();
+			removeIfCurrent(eldest);
+		}
+	}
+
+	private boolean evictEldest(Queue<IdempotencyRecord> expirations) {
+		IdempotencyRecord eldest;
+		while ((eldest = expirations.poll()) != null) {
+			if (removeIfCurrent(eldest)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *  Remove a entrada só se ela ainda é exatamente este registro (por identidade): o @Data do
+	 *  IdempotencyRecord compara por valor, e um registro novo igual ao velho da fila não pode sair.
+	 * */
+	private boolean removeIfCurrent(IdempotencyRecord record) {
+		boolean[] removed = new boolean[1];
+		records.computeIfPresent(record.getKeyHash(), (key, current) -> {
+			removed[0] = current == record;
+			return removed[0] ? null : current;
+		});
+		return removed[0];
+	}
+
+	private long fingerprint(Object request) {
+		try {
+			return hash(objectMapper.writeValueAsString(request), "");
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long hash(String idempotencyKey, String scope) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < scope.length(); i++) {
+			hash = (hash ^ scope.charAt(i)) * FNV_PRIME;
+		}
+		hash = (hash ^ '\n') * FNV_PRIME;
+		for (int i = 0; i < idempotencyKey.length(); i++) {
+			hash = (hash ^ idempotencyKey.charAt(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class IdempotencyRecord {
+
+		private long keyHash;
+
+		private long fingerprint;
+
+		private long expiresAt;
+
+		private FoodDTO response;
+	}
+}
@@ -0,0 +1,166 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+import com.bootcamp.dogfoodapi.entity.OutboxDeadLetter;
+import com.bootcamp.dogfoodapi.entity.OutboxEvent;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.OutboxSink;
+import com.bootcamp.dogfoodapi.repository.OutboxDeadLetterRepository;
+import com.bootcamp.dogfoodapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ *  Entrega os eventos do outbox para o OutboxSink, em lotes na ordem de gravação (id).
+ *
+ *  Entrega pelo menos uma vez: o lote só é apagado depois que o sink confirma, e uma falha no
+ *  sink ou no DELETE faz o lote ser reenviado. Um evento com payload ilegível não tem como dar
+ *  certo numa nova tentativa: ele vai para OutboxDeadLetter no mesmo commit que apaga o lote e o
+ *  resto do lote segue normalmente. Dentro de um lote, STOCK_CHANGED seguidos do mesmo
+ *  food viram uma única mensagem com o estado final e as unidades somadas; a mensagem fica na
+ *  posição do último evento, então a ordem por food é mantida.
+ *
+ *  A ordem garantida é a de cada food: todo caminho que gera evento lê o food com lock de escrita
+ *  antes do INSERT no outbox e só solta no commit, então os ids de um mesmo food seguem a ordem de
+ *  commit. Entre foods diferentes os ids (IDENTITY, pegos no INSERT) podem ficar visíveis fora de
+ *  ordem, e um evento de id menor pode ser entregue num lote seguinte.
+ *
+ *  Cada lote é lido com lock de escrita e apagado na mesma transação, que vai sempre para o
+ *  primário: a réplica não recebe o outbox. Com mais de uma instância, o relay que chega depois
+ *  espera o lock do lote (SKIP LOCKED não existe no H2) e só vê o que sobrou depois do commit,
+ *  então as instâncias se revezam em vez de entregar em dobro; se o lock estourar o timeout, a
+ *  rodada termina e a próxima tenta de novo.
+ * */
+@Slf4j
+@Lazy(false)
+@Service
+@ConditionalOnProperty(value = "dogfood.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+	private static final int MAX_ERROR_LENGTH = 1000;
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+	private final OutboxSink outboxSink;
+	private final TransactionOperations transactionOperations;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final int batchSize;
+	private final Clock clock;
+
+	@Autowired
+	public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxDeadLetterRepository outboxDeadLetterRepository,
+					   OutboxSink outboxSink, TransactionOperations transactionOperations,
+					   @Value("${dogfood.outbox.batch-size:100}") int batchSize) {
+		this(outboxEventRepository, outboxDeadLetterRepository, outboxSink, transactionOperations, batchSize, Clock.systemUTC());
+	}
+
+	OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxDeadLetterRepository outboxDeadLetterRepository,
+				OutboxSink outboxSink, TransactionOperations transactionOperations, int batchSize, Clock clock) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+		this.outboxSink = outboxSink;
+		this.transactionOperations = transactionOperations;
+		this.batchSize = batchSize;
+		this.clock = clock;
+	}
+
+	@Scheduled(fixedDelayString = "${dogfood.outbox.relay-millis:500}")
+	public void relay() {
+		Integer relayed;
+		do {
+			try {
+				relayed = transactionOperations.execute(status -> relayBatch());
+			} catch (PessimisticLockingFailureException e) {
+				log.debug("Outbox batch is locked by another relay, retrying on next run", e);
+				return;
+			}
+		} while (relayed != null && relayed == batchSize);
+	}
+
+	private int relayBatch() {
+		List<OutboxEvent> events = outboxEventRepository.findForUpdate(PageRequest.of(0, batchSize));
+		if (events.isEmpty()) {
+			return 0;
+		}
+		List<OutboxMessageDTO> messages = new ArrayList<>(events.size());
+		List<OutboxDeadLetter> deadLetters = new ArrayList<>();
+		for (OutboxEvent event : events) {
+			try {
+				messages.add(toMessage(event));
+			} catch (JsonProcessingException e) {
+				log.error("Outbox event {} has an unreadable payload, moving it to the dead letters", event.getId(), e);
+				deadLetters.add(toDeadLetter(event, e));
+			}
+		}
+		try {
+			if (!messages.isEmpty()) {
+				outboxSink.send(compact(messages));
+			}
+		} catch (IOException | RuntimeException e) {
+			log.warn("Outbox batch starting at event {} was not delivered, retrying on next run", events.get(0).getId(), e);
+			return 0;
+		}
+		outboxDeadLetterRepository.saveAll(deadLetters);
+		outboxEventRepository.deleteInBatch(events);
+		return events.size();
+	}
+
+	List<OutboxMessageDTO> compact(List<OutboxMessageDTO> messages) {
+		List<OutboxMessageDTO> compacted = new ArrayList<>(messages.size());
+		Map<Long, Integer> pendingStockChanges = new HashMap<>();
+		for (OutboxMessageDTO message : messages) {
+			Integer superseded = message.getType() == FoodEventType.STOCK_CHANGED
+					? pendingStockChanges.put(message.getFoodId(), compacted.size())
+					: pendingStockChanges.remove(message.getFoodId());
+			if (superseded != null && message.getType() == FoodEventType.STOCK_CHANGED) {
+				OutboxMessageDTO previous = compacted.set(superseded, null);
+				message.setUnitsAdded(previous.getUnitsAdded() + message.getUnitsAdded());
+				message.setUnitsRemoved(previous.getUnitsRemoved() + message.getUnitsRemoved());
+				message.setCompactedEvents(previous.getCompactedEvents() + 1);
+			}
+			compacted.add(message);
+		}
+		return compacted.stream()
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	OutboxMessageDTO toMessage(OutboxEvent event) throws JsonProcessingException {
+		return OutboxMessageDTO.builder()
+				.eventId(event.getId())
+				.foodId(event.getFoodId())
+				.type(event.getType())
+				.unitsAdded(event.getUnitsAdded())
+				.unitsRemoved(event.getUnitsRemoved())
+				.compactedEvents(1)
+				.occurredAt(event.getOccurredAt())
+				.food(objectMapper.readValue(event.getPayload(), FoodDTO.class))
+				.build();
+	}
+
+	private OutboxDeadLetter toDeadLetter(OutboxEvent event, JsonProcessingException e) {
+		String error = String.valueOf(e.getOriginalMessage());
+		return new OutboxDeadLetter(event.getId(), event.getFoodId(), event.getType(), event.getPayload(), event.getOccurredAt(),
+				error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)), clock.instant());
+	}
+}
@@ -0,0 +1,53 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.entity.OutboxEvent;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+
+/**
+ *  Grava cada FoodEvent no outbox.
+ *
+ *  O listener é síncrono (não é @TransactionalEventListener) de propósito: o INSERT entra na
+ *  mesma transação da alteração do food, então o evento existe se e somente se a alteração
+ *  foi commitada. Quem entrega os eventos é o OutboxRelay.
+ * */
+@Service
+@ConditionalOnProperty(value = "dogfood.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxWriter {
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Clock clock;
+
+	@Autowired
+	public OutboxWriter(OutboxEventRepository outboxEventRepository) {
+		this(outboxEventRepository, Clock.systemUTC());
+	}
+
+	OutboxWriter(OutboxEventRepository outboxEventRepository, Clock clock) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.clock = clock;
+	}
+
+	@EventListener
+	public void onFoodEvent(FoodEvent event) {
+		outboxEventRepository.save(new OutboxEvent(null, event.getFood().getId(), event.getType(),
+				event.getUnitsAdded(), event.getUnitsRemoved(), toPayload(event), clock.instant()));
+	}
+
+	private String toPayload(FoodEvent event) {
+		try {
+			return objectMapper.writeValueAsString(event.getFood());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize food " + event.getFood().getId(), e);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.AvailabilityDTO;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.ReservationDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.ReservationNotFoundException;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.utils.TimerWheel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *  Reservas de estoque com expiração.
+ *
+ *  As reservas ficam só em memória: o banco só é alterado no commit, que faz o decrement
+ *  pelo FoodService (mantendo as validações de max e zero). Enquanto a reserva existe,
+ *  as unidades contam como "held" no StockHolds e saem do disponível do local padrão
+ *  (quantity - allocatedQuantity - held), que é de onde o commit tira o estoque; os outros
+ *  decrements também descontam o held, então não consomem o que está reservado.
+ *
+ *  A reserva lê o food com lock de escrita no primário: um decrement concorrente espera a
+ *  reserva ser registrada e já enxerga o held.
+ * */
+@Service
+public class ReservationService {
+
+	private final FoodRepository foodRepository;
+	private final FoodService foodService;
+	private final StockHolds stockHolds;
+	private final Clock clock;
+	private final TimerWheel<Reservation> expirations;
+	private final Map<String, Reservation> reservations = new HashMap<>();
+
+	@Autowired
+	public ReservationService(FoodRepository foodRepository, FoodService foodService, StockHolds stockHolds,
+							  @Value("${dogfood.reservations.wheel-size:512}") int wheelSize,
+							  @Value("${dogfood.reservations.tick-millis:1000}") long tickMillis) {
+		this(foodRepository, foodService, stockHolds, wheelSize, tickMillis, Clock.systemUTC());
+	}
+
+	ReservationService(FoodRepository foodRepository, FoodService foodService, StockHolds stockHolds, int wheelSize,
+					   long tickMillis, Clock clock) {
+		this.foodRepository = foodRepository;
+		this.foodService = foodService;
+		this.stockHolds = stockHolds;
+		this.clock = clock;
+		this.expirations = new TimerWheel<>(wheelSize, tickMillis, clock.millis());
+	}
+
+	@Transactional
+	public ReservationDTO reserve(Long foodId, int quantity, int ttlSeconds) throws FoodNotFoundException, FoodStockExceededException {
+		Food food = foodRepository.findForUpdateById(foodId).orElseThrow(() -> new FoodNotFoundException(foodId));
+		Instant expiresAt = clock.instant().plusSeconds(ttlSeconds);
+		Reservation reservation = new Reservation(UUID.randomUUID().toString(), foodId, quantity, expiresAt);
+		synchronized (this) {
+			if (!stockHolds.tryHold(foodId, quantity, food.getQuantity() - food.getAllocatedQuantity())) {
+				throw new FoodStockExceededException(foodId, quantity);
+			}
+			reservation.timeout = expirations.schedule(reservation, expiresAt.toEpochMilli());
+			reservations.put(reservation.getId(), reservation);
+		}
+		return toDTO(reservation);
+	}
+
+	/**
+	 *  A reserva sai do mapa e da roda durante o decrement, então release e expiração concorrentes
+	 *  não a encontram; o held só é liberado depois que o decrement deu certo. Se ele falhar, a
+	 *  reserva volta com o mesmo expiresAt e pode ser confirmada de novo ou expirar normalmente.
+	 * */
+	public FoodDTO commit(String reservationId) throws ReservationNotFoundException, FoodNotFoundException, FoodStockExceededException {
+		Reservation reservation = take(reservationId);
+		FoodDTO foodDTO;
+		try {
+			foodDTO = foodService.decrementReserved(reservation.getFoodId(), reservation.getQuantity());
+		} catch (FoodNotFoundException | FoodStockExceededException | RuntimeException e) {
+			putBack(reservation);
+			throw e;
+		}
+		releaseHold(reservation);
+		return foodDTO;
+	}
+
+	public void release(String reservationId) throws ReservationNotFoundException {
+		releaseHold(take(reservationId));
+	}
+
+	/**
+	 *  Transação de escrita de propósito: o held é do primário, então a quantidade também tem que ser.
+	 * */
+	@Transactional
+	public AvailabilityDTO availability(Long foodId) throws FoodNotFoundException {
+		Food food = foodRepository.findById(foodId).orElseThrow(() -> new FoodNotFoundException(foodId));
+		int held = heldOf(foodId);
+		return AvailabilityDTO.builder()
+				.foodId(foodId)
+				.quantity(food.getQuantity())
+				.held(held)
+				.available(Math.max(food.getQuantity() - food.getAllocatedQuantity() - held, 0))
+				.build();
+	}
+
+	@Scheduled(fixedDelayString = "${dogfood.reservations.tick-millis:1000}")
+	public synchronized void expireReservations() {
+		for (Reservation reservation : expirations.advance(clock.millis())) {
+			reservations.remove(reservation.getId());
+			releaseHold(reservation);
+		}
+	}
+
+	public int heldOf(Long foodId) {
+		return stockHolds.heldOf(foodId);
+	}
+
+	private synchronized Reservation take(String reservationId) throws ReservationNotFoundException {
+		Reservation reservation = reservations.remove(reservationId);
+		if (reservation == null) {
+			throw new ReservationNotFoundException(reservationId);
+		}
+		expirations.cancel(reservation.timeout);
+		return reservation;
+	}
+
+	private synchronized void putBack(Reservation reservation) {
+		reservation.timeout = expirations.schedule(reservation, reservation.getExpiresAt().toEpochMilli());
+		reservations.put(reservation.getId(), reservation);
+	}
+
+	private void releaseHold(Reservation reservation) {
+		stockHolds.release(reservation.getFoodId(), reservation.getQuantity());
+	}
+
+	private static ReservationDTO toDTO(Reservation reservation) {
+		return ReservationDTO.builder()
+				.id(reservation.getId())
+				.foodId(reservation.getFoodId())
+				.quantity(reservation.getQuantity())
+				.expiresAt(reservation.getExpiresAt())
+				.build();
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	private static class Reservation {
+
+		private final String id;
+
+		private final Long foodId;
+
+		private final int quantity;
+
+		private final Instant expiresAt;
+
+		private TimerWheel.Timeout<Reservation> timeout;
+	}
+}
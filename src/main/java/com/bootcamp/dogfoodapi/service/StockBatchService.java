@@ -0,0 +1,75 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ *  Aplica várias alterações de estoque de um mesmo food com uma única leitura e uma única escrita.
+ *
+ *  Os deltas são aplicados em ordem de chegada (positivos incrementam, negativos decrementam)
+ *  e cada um é validado contra o max e o zero do estoque resultante dos anteriores. Como não
+ *  informam local, só mexem no local padrão: um decrement não pode deixar o estoque abaixo do alocado
+ *  nos outros locais somado ao que está reservado (StockHolds).
+ *
+ *  Sempre roda numa transação nova: quem chama (o líder de um lote do StockCommitCoalescer, o worker
+ *  da StockMutationQueue) só entrega os resultados depois do commit, nunca antes de a escrita valer.
+ *  O food é lido com lock de escrita, então dois lotes do mesmo food são aplicados um depois do outro.
+ * */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockBatchService {
+
+	private final FoodRepository foodRepository;
+	private final StockHolds stockHolds;
+	private final ApplicationEventPublisher applicationEventPublisher;
+	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
+
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<StockMutationResult> applyAll(Long id, List<Integer> quantityDeltas) {
+		Optional<Food> optFood = foodRepository.findForUpdateById(id);
+		if (optFood.isEmpty()) {
+			return Collections.nCopies(quantityDeltas.size(), new StockMutationResult(StockMutationStatus.NOT_FOUND, null));
+		}
+		Food food = optFood.get();
+		int held = stockHolds.heldOf(id);
+		List<StockMutationResult> results = new ArrayList<>(quantityDeltas.size());
+		int unitsAdded = 0;
+		int unitsRemoved = 0;
+		for (int quantityDelta : quantityDeltas) {
+			int quantityAfterMutation = food.getQuantity() + quantityDelta;
+			int minimum = food.getAllocatedQuantity() + (quantityDelta < 0 ? held : 0);
+			if (quantityAfterMutation < minimum || quantityAfterMutation > food.getMax()) {
+				results.add(new StockMutationResult(StockMutationStatus.STOCK_EXCEEDED, null));
+				continue;
+			}
+			food.setQuantity(quantityAfterMutation);
+			results.add(new StockMutationResult(StockMutationStatus.APPLIED, foodMapper.toDTO(food)));
+			if (quantityDelta > 0) {
+				unitsAdded += quantityDelta;
+			} else {
+				unitsRemoved -= quantityDelta;
+			}
+		}
+		if (unitsAdded > 0 || unitsRemoved > 0) {
+			foodRepository.save(food);
+			applicationEventPublisher.publishEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodMapper.toDTO(food), unitsAdded, unitsRemoved));
+		}
+		return results;
+	}
+}
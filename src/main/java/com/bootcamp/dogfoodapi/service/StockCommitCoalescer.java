@@ -0,0 +1,135 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ *  Group commit das alterações de estoque de um mesmo food.
+ *
+ *  A primeira chamada para um id abre um lote e espera a janela configurada; as chamadas
+ *  que chegam nesse intervalo entram no mesmo lote. O lote é aplicado com um único UPDATE
+ *  pelo StockBatchService e cada chamada recebe o seu próprio resultado, de forma síncrona.
+ *
+ *  O lote sai de openBatches assim que fecha, para o próximo já ir juntando chamadas enquanto este
+ *  grava; o StockBatchService lê o food com lock de escrita, então o próximo lote só lê o estoque
+ *  depois do commit deste.
+ * */
+@Service
+public class StockCommitCoalescer {
+
+	private final StockBatchService stockBatchService;
+	private final ConcurrentMap<Long, PendingBatch> openBatches = new ConcurrentHashMap<>();
+	private final boolean enabled;
+	private final long windowNanos;
+
+	@Autowired
+	public StockCommitCoalescer(StockBatchService stockBatchService,
+								@Value("${dogfood.coalescing.enabled:false}") boolean enabled,
+								@Value("${dogfood.coalescing.window-micros:2000}") long windowMicros) {
+		this.stockBatchService = stockBatchService;
+		this.enabled = enabled;
+		this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public StockMutationResult apply(Long id, int quantityDelta) {
+		PendingWrite write = new PendingWrite(quantityDelta);
+		PendingBatch batch = join(id, write);
+		if (batch.isLeader(write)) {
+			commit(id, batch);
+		}
+		return await(write);
+	}
+
+	private PendingBatch join(Long id, PendingWrite write) {
+		while (true) {
+			PendingBatch batch = openBatches.computeIfAbsent(id, key -> new PendingBatch());
+			if (batch.add(write)) {
+				return batch;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	private void commit(Long id, PendingBatch batch) {
+		long deadline = System.nanoTime() + windowNanos;
+		for (long remaining = windowNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(remaining);
+		}
+		List<PendingWrite> writes = batch.close();
+		openBatches.remove(id, batch);
+		try {
+			List<StockMutationResult> results = stockBatchService.applyAll(id, writes.stream()
+					.map(PendingWrite::getQuantityDelta)
+					.collect(Collectors.toList()));
+			for (int i = 0; i < writes.size(); i++) {
+				writes.get(i).getResult().complete(results.get(i));
+			}
+		} catch (RuntimeException e) {
+			writes.forEach(pendingWrite -> pendingWrite.getResult().completeExceptionally(e));
+		}
+	}
+
+	private static StockMutationResult await(PendingWrite write) {
+		try {
+			return write.getResult().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for stock commit", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static class PendingBatch {
+
+		private final List<PendingWrite> writes = new ArrayList<>();
+		private boolean closed;
+
+		synchronized boolean add(PendingWrite write) {
+			if (closed) {
+				return false;
+			}
+			writes.add(write);
+			return true;
+		}
+
+		synchronized boolean isLeader(PendingWrite write) {
+			return writes.get(0) == write;
+		}
+
+		synchronized List<PendingWrite> close() {
+			closed = true;
+			return writes;
+		}
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	private static class PendingWrite {
+
+		private final int quantityDelta;
+
+		private final CompletableFuture<StockMutationResult> result = new CompletableFuture<>();
+	}
+}
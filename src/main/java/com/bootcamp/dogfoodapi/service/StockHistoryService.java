@@ -0,0 +1,334 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.StockHistoryBucketDTO;
+import com.bootcamp.dogfoodapi.dto.StockHistoryDTO;
+import com.bootcamp.dogfoodapi.dto.StockProjectionDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.entity.StockHistoryBucket;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
+import com.bootcamp.dogfoodapi.utils.RollupRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ *  Histórico de estoque por food em anéis de buckets de minuto, hora e dia.
+ *
+ *  Cada FoodEvent com unidades que entraram ou saíram é somado nos três anéis depois do commit.
+ *  Histórico e projeção são respondidos só pelos anéis; os buckets de hora e dia alterados são
+ *  gravados periodicamente em StockHistoryBucket. Se a gravação falha, os buckets voltam a ficar
+ *  marcados e entram na compactação seguinte.
+ *
+ *  Os anéis de um food (uns 8KB) saem da memória depois da compactação quando ele fica parado por
+ *  mais que a janela de minutos, ou, passando de max-foods, a partir dos parados há mais tempo. O
+ *  que foi gravado volta do banco no próximo evento ou consulta do food; só os buckets de minuto,
+ *  que não são gravados, se perdem quando o limite obriga a tirar um food ainda ativo. No startup
+ *  todo food com buckets gravados entra nessa situação, e até lá todo food novo é procurado no banco.
+ *
+ *  A leitura do banco é feita antes de mexer no mapa de anéis: o compute do mapa (que segura o bin
+ *  do ConcurrentHashMap e roda no AFTER_COMMIT de quem alterou o estoque) só monta os anéis com o
+ *  que já foi lido e soma o evento.
+ * */
+@Slf4j
+@Lazy(false)
+@Service
+public class StockHistoryService {
+
+	private static final List<HistoryResolution> COMPACTED_RESOLUTIONS = List.of(HistoryResolution.HOUR, HistoryResolution.DAY);
+
+	private final FoodRepository foodRepository;
+	private final StockHistoryBucketRepository stockHistoryBucketRepository;
+	private final Map<HistoryResolution, Integer> ringSizes = new EnumMap<>(HistoryResolution.class);
+	private final TransactionOperations transactionOperations;
+	private final int projectionHours;
+	private final int maxFoods;
+	private final Clock clock;
+	private final ConcurrentMap<Long, Map<HistoryResolution, RollupRing>> rollups = new ConcurrentHashMap<>();
+	private final Set<Long> evictedFoods = ConcurrentHashMap.newKeySet();
+	private volatile boolean restored;
+
+	@Autowired
+	public StockHistoryService(FoodRepository foodRepository, StockHistoryBucketRepository stockHistoryBucketRepository,
+							   TransactionOperations transactionOperations,
+							   @Value("${dogfood.history.minute-buckets:120}") int minuteBuckets,
+							   @Value("${dogfood.history.hour-buckets:168}") int hourBuckets,
+							   @Value("${dogfood.history.day-buckets:90}") int dayBuckets,
+							   @Value("${dogfood.history.projection-hours:168}") int projectionHours,
+							   @Value("${dogfood.history.max-foods:10000}") int maxFoods) {
+		this(foodRepository, stockHistoryBucketRepository, transactionOperations, minuteBuckets, hourBuckets, dayBuckets,
+				projectionHours, maxFoods, Clock.systemUTC());
+	}
+
+	StockHistoryService(FoodRepository foodRepository, StockHistoryBucketRepository stockHistoryBucketRepository,
+						TransactionOperations transactionOperations, int minuteBuckets, int hourBuckets, int dayBuckets,
+						int projectionHours, int maxFoods, Clock clock) {
+		this.foodRepository = foodRepository;
+		this.stockHistoryBucketRepository = stockHistoryBucketRepository;
+		this.transactionOperations = transactionOperations;
+		this.ringSizes.put(HistoryResolution.MINUTE, minuteBuckets);
+		this.ringSizes.put(HistoryResolution.HOUR, hourBuckets);
+		this.ringSizes.put(HistoryResolution.DAY, dayBuckets);
+		this.projectionHours = Math.min(projectionHours, hourBuckets);
+		this.maxFoods = maxFoods;
+		this.clock = clock;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFoodEvent(FoodEvent event) {
+		Long foodId = event.getFood().getId();
+		if (event.getType() == FoodEventType.DELETED) {
+			rollups.remove(foodId);
+			evictedFoods.remove(foodId);
+			return;
+		}
+		if (event.getUnitsAdded() == 0 && event.getUnitsRemoved() == 0) {
+			return;
+		}
+		long now = clock.millis();
+		Map<HistoryResolution, RollupRing> recorded;
+		do {
+			rollupsOf(foodId);
+			recorded = rollups.computeIfPresent(foodId, (id, foodRollups) -> {
+				foodRollups.values().forEach(ring ->
+						ring.record(now, event.getUnitsAdded(), event.getUnitsRemoved(), event.getFood().getQuantity()));
+				return foodRollups;
+			});
+		} while (recorded == null);
+	}
+
+	public StockHistoryDTO history(Long foodId, HistoryResolution resolution) throws FoodNotFoundException {
+		verifyIfExists(foodId);
+		long now = clock.millis();
+		Map<HistoryResolution, RollupRing> foodRollups = trackedRollupsOf(foodId);
+		List<StockHistoryBucketDTO> buckets = foodRollups == null ? List.of() : foodRollups.get(resolution)
+				.buckets(windowStart(resolution, now), now)
+				.stream()
+				.map(StockHistoryService::toDTO)
+				.collect(Collectors.toList());
+		return StockHistoryDTO.builder()
+				.foodId(foodId)
+				.resolution(resolution)
+				.buckets(buckets)
+				.build();
+	}
+
+	public StockProjectionDTO projection(Long foodId) throws FoodNotFoundException {
+		Food food = verifyIfExists(foodId);
+		long now = clock.millis();
+		long windowMillis = projectionHours * HistoryResolution.HOUR.getMillis();
+		Map<HistoryResolution, RollupRing> foodRollups = trackedRollupsOf(foodId);
+		List<RollupRing.Bucket> buckets = foodRollups == null ? List.of()
+				: foodRollups.get(HistoryResolution.HOUR).buckets(now - windowMillis, now);
+		int unitsRemoved = buckets.stream().mapToInt(RollupRing.Bucket::getUnitsRemoved).sum();
+		long observedMillis = buckets.isEmpty() ? 0 : Math.min(windowMillis, now - buckets.get(0).getStartMillis());
+		double hours = Math.max(1.0, (double) observedMillis / HistoryResolution.HOUR.getMillis());
+		double unitsRemovedPerHour = unitsRemoved / hours;
+		double unitsRemovedPerDay = unitsRemovedPerHour * 24;
+		return StockProjectionDTO.builder()
+				.foodId(foodId)
+				.quantity(food.getQuantity())
+				.unitsRemovedPerHour(unitsRemovedPerHour)
+				.unitsRemovedPerDay(unitsRemovedPerDay)
+				.daysUntilEmpty(unitsRemovedPerDay > 0 ? food.getQuantity() / unitsRemovedPerDay : null)
+				.build();
+	}
+
+	@Scheduled(fixedDelayString = "${dogfood.history.compaction-millis:60000}")
+	public void compact() {
+		Map<RollupRing, List<RollupRing.Bucket>> drained = new HashMap<>();
+		int compacted;
+		try {
+			compacted = transactionOperations.execute(status -> saveDirty(drained));
+		} catch (RuntimeException e) {
+			drained.forEach(RollupRing::markDirty);
+			log.warn("Stock history compaction failed, {} rings will be retried", drained.size(), e);
+			return;
+		}
+		if (compacted > 0) {
+			log.debug("Compacted {} stock history buckets", compacted);
+		}
+		evictIdle();
+	}
+
+	public int trackedFoods() {
+		return rollups.size();
+	}
+
+	/**
+	 *  Marca os foods com buckets gravados dentro da janela de dias para serem lidos do banco quando
+	 *  forem usados, em vez de carregar todos os anéis no startup.
+	 * */
+	@EventListener(ApplicationReadyEvent.class)
+	public void restore() {
+		Instant from = Instant.ofEpochMilli(windowStart(HistoryResolution.DAY, clock.millis()));
+		List<Long> foodIds = stockHistoryBucketRepository.findFoodIdsWithBucketsSince(from);
+		evictedFoods.addAll(foodIds);
+		restored = true;
+		log.info("Stock history restored for {} foods", foodIds.size());
+	}
+
+	private int saveDirty(Map<RollupRing, List<RollupRing.Bucket>> drained) {
+		int compacted = 0;
+		for (Map.Entry<Long, Map<HistoryResolution, RollupRing>> foodRollups : rollups.entrySet()) {
+			for (HistoryResolution resolution : COMPACTED_RESOLUTIONS) {
+				RollupRing ring = foodRollups.getValue().get(resolution);
+				List<RollupRing.Bucket> buckets = ring.drainDirty();
+				if (buckets.isEmpty()) {
+					continue;
+				}
+				drained.put(ring, buckets);
+				for (RollupRing.Bucket bucket : buckets) {
+					save(foodRollups.getKey(), resolution, bucket);
+					compacted++;
+				}
+			}
+		}
+		return compacted;
+	}
+
+	private void evictIdle() {
+		long idleBefore = clock.millis() - ringSizes.get(HistoryResolution.MINUTE) * HistoryResolution.MINUTE.getMillis();
+		rollups.forEach((foodId, foodRollups) -> {
+			if (lastRecorded(foodRollups) < idleBefore) {
+				evictIfCompacted(foodId);
+			}
+		});
+		int excess = rollups.size() - maxFoods;
+		if (excess > 0) {
+			rollups.entrySet().stream()
+					.sorted(Comparator.comparingLong(foodRollups -> lastRecorded(foodRollups.getValue())))
+					.limit(excess)
+					.map(Map.Entry::getKey)
+					.collect(Collectors.toList())
+					.forEach(this::evictIfCompacted);
+		}
+	}
+
+	private void evictIfCompacted(Long foodId) {
+		rollups.computeIfPresent(foodId, (id, foodRollups) -> {
+			if (COMPACTED_RESOLUTIONS.stream().anyMatch(resolution -> foodRollups.get(resolution).isDirty())) {
+				return foodRollups;
+			}
+			evictedFoods.add(id);
+			return null;
+		});
+	}
+
+	private static long lastRecorded(Map<HistoryResolution, RollupRing> foodRollups) {
+		return foodRollups.get(HistoryResolution.MINUTE).latestStartMillis();
+	}
+
+	private void save(Long foodId, HistoryResolution resolution, RollupRing.Bucket bucket) {
+		Instant bucketStart = Instant.ofEpochMilli(bucket.getStartMillis());
+		StockHistoryBucket stockHistoryBucket = stockHistoryBucketRepository
+				.findByFoodIdAndResolutionAndBucketStart(foodId, resolution, bucketStart)
+				.orElseGet(() -> new StockHistoryBucket(null, foodId, resolution, bucketStart, 0, 0, 0));
+		stockHistoryBucket.setUnitsAdded(bucket.getUnitsAdded());
+		stockHistoryBucket.setUnitsRemoved(bucket.getUnitsRemoved());
+		stockHistoryBucket.setClosingQuantity(bucket.getClosingQuantity());
+		stockHistoryBucketRepository.save(stockHistoryBucket);
+	}
+
+	/**
+	 *  Os anéis do food, criando-os se preciso. Quando o food tem buckets gravados, eles são lidos
+	 *  antes do computeIfAbsent; se o food for tirado da memória entre a checagem e o
+	 *  computeIfAbsent, o lambda não cria anéis vazios e a leitura é refeita.
+	 * */
+	private Map<HistoryResolution, RollupRing> rollupsOf(Long foodId) {
+		while (true) {
+			Map<HistoryResolution, RollupRing> foodRollups = rollups.get(foodId);
+			if (foodRollups != null) {
+				return foodRollups;
+			}
+			Map<HistoryResolution, List<StockHistoryBucket>> persisted = mayBePersisted(foodId) ? findPersisted(foodId) : null;
+			foodRollups = rollups.computeIfAbsent(foodId, id -> persisted != null || !mayBePersisted(id) ? newRollups(id, persisted) : null);
+			if (foodRollups != null) {
+				return foodRollups;
+			}
+		}
+	}
+
+	private Map<HistoryResolution, RollupRing> trackedRollupsOf(Long foodId) {
+		Map<HistoryResolution, RollupRing> foodRollups = rollups.get(foodId);
+		if (foodRollups == null && mayBePersisted(foodId)) {
+			return rollupsOf(foodId);
+		}
+		return foodRollups;
+	}
+
+	private boolean mayBePersisted(Long foodId) {
+		return !restored || evictedFoods.contains(foodId);
+	}
+
+	private Map<HistoryResolution, List<StockHistoryBucket>> findPersisted(Long foodId) {
+		long now = clock.millis();
+		Map<HistoryResolution, List<StockHistoryBucket>> persisted = new EnumMap<>(HistoryResolution.class);
+		for (HistoryResolution resolution : COMPACTED_RESOLUTIONS) {
+			persisted.put(resolution, stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStartGreaterThanEqual(foodId,
+					resolution, Instant.ofEpochMilli(windowStart(resolution, now))));
+		}
+		return persisted;
+	}
+
+	/**
+	 *  Anéis para um food, com os buckets de hora e dia já lidos do banco quando ele tem algum, senão
+	 *  a próxima compactação sobrescreveria o que foi gravado antes. Não faz I/O: roda dentro do
+	 *  computeIfAbsent.
+	 * */
+	private Map<HistoryResolution, RollupRing> newRollups(Long foodId, Map<HistoryResolution, List<StockHistoryBucket>> persisted) {
+		Map<HistoryResolution, RollupRing> rings = new EnumMap<>(HistoryResolution.class);
+		ringSizes.forEach((resolution, size) -> rings.put(resolution, new RollupRing(resolution.getMillis(), size)));
+		if (persisted != null) {
+			persisted.forEach((resolution, buckets) ->
+					buckets.forEach(bucket -> rings.get(resolution).restore(toRollupBucket(bucket))));
+		}
+		evictedFoods.remove(foodId);
+		return rings;
+	}
+
+	private long windowStart(HistoryResolution resolution, long now) {
+		return now - (ringSizes.get(resolution) - 1) * resolution.getMillis();
+	}
+
+	private Food verifyIfExists(Long foodId) throws FoodNotFoundException {
+		return foodRepository.findById(foodId).orElseThrow(() -> new FoodNotFoundException(foodId));
+	}
+
+	private static RollupRing.Bucket toRollupBucket(StockHistoryBucket bucket) {
+		return new RollupRing.Bucket(bucket.getBucketStart().toEpochMilli(), bucket.getUnitsAdded(), bucket.getUnitsRemoved(),
+				bucket.getClosingQuantity());
+	}
+
+	private static StockHistoryBucketDTO toDTO(RollupRing.Bucket bucket) {
+		return StockHistoryBucketDTO.builder()
+				.start(Instant.ofEpochMilli(bucket.getStartMillis()))
+				.unitsAdded(bucket.getUnitsAdded())
+				.unitsRemoved(bucket.getUnitsRemoved())
+				.closingQuantity(bucket.getClosingQuantity())
+				.build();
+	}
+}
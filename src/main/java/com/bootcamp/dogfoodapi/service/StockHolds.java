@@ -0,0 +1,39 @@
+package com.bootcamp.dogfoodapi.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  Unidades seguradas por reservas, por food.
+ *
+ *  Fica fora do ReservationService para que todo caminho que tira estoque do local padrão
+ *  (FoodService, StockBatchService) desconte o que está reservado sem depender das reservas:
+ *  o disponível é sempre quantity - allocatedQuantity - held.
+ * */
+@Service
+public class StockHolds {
+
+	private final Map<Long, Integer> heldByFood = new HashMap<>();
+
+	public synchronized int heldOf(Long foodId) {
+		return heldByFood.getOrDefault(foodId, 0);
+	}
+
+	/**
+	 *  Segura quantity unidades se couberem em unheld (o estoque do local padrão sem descontar as
+	 *  reservas); a verificação e o registro são atômicos.
+	 * */
+	public synchronized boolean tryHold(Long foodId, int quantity, int unheld) {
+		if (unheld - heldOf(foodId) - quantity < 0) {
+			return false;
+		}
+		heldByFood.merge(foodId, quantity, Integer::sum);
+		return true;
+	}
+
+	public synchronized void release(Long foodId, int quantity) {
+		heldByFood.computeIfPresent(foodId, (id, held) -> held - quantity > 0 ? held - quantity : null);
+	}
+}
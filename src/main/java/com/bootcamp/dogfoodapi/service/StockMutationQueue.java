@@ -0,0 +1,222 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.dto.TicketDTO;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.exception.StockMutationQueueFullException;
+import com.bootcamp.dogfoodapi.exception.TicketNotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ *  Fila em memória para as alterações de estoque assíncronas.
+ *
+ *  A fila é particionada pelo id do food, então as alterações de um mesmo food são
+ *  sempre consumidas pela mesma thread e na ordem em que chegaram. Cada consumidor
+ *  drena a sua partição em micro-lotes e junta os deltas do mesmo food numa única escrita.
+ *
+ *  Cada partição guarda no máximo partition-capacity alterações; com ela cheia o submit recusa
+ *  (503) em vez de acumular memória sem limite. Só tickets já concluídos são descartados quando
+ *  passam de max-tickets, do mais antigo para o mais novo; os pendentes já são limitados pela
+ *  capacidade das partições.
+ *
+ *  No shutdown a fila para de aceitar alterações e os consumidores terminam de drenar as
+ *  partições (sem interrupção, para não abortar uma escrita no meio); o que não for aplicado
+ *  dentro de shutdown-timeout-millis fica FAILED, então nenhum ticket aceito com 202 fica PENDING.
+ * */
+@Slf4j
+@Service
+public class StockMutationQueue {
+
+	private static final long POLL_MILLIS = 100;
+
+	private final StockBatchService stockBatchService;
+	private final List<BlockingQueue<StockMutation>> partitions;
+	private final List<Thread> consumers;
+	private final Map<String, TicketDTO> tickets = new HashMap<>();
+	private final Queue<String> completedTickets = new ArrayDeque<>();
+	private final ReadWriteLock acceptingLock = new ReentrantReadWriteLock();
+	private final int batchSize;
+	private final int maxTickets;
+	private final long shutdownTimeoutMillis;
+	private volatile boolean accepting = true;
+
+	@Autowired
+	public StockMutationQueue(StockBatchService stockBatchService,
+							  @Value("${dogfood.async.partitions:4}") int partitionCount,
+							  @Value("${dogfood.async.partition-capacity:10000}") int partitionCapacity,
+							  @Value("${dogfood.async.batch-size:64}") int batchSize,
+							  @Value("${dogfood.async.max-tickets:100000}") int maxTickets,
+							  @Value("${dogfood.async.shutdown-timeout-millis:10000}") long shutdownTimeoutMillis) {
+		this.stockBatchService = stockBatchService;
+		this.batchSize = batchSize;
+		this.maxTickets = maxTickets;
+		this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+		this.partitions = new ArrayList<>(partitionCount);
+		this.consumers = new ArrayList<>(partitionCount);
+		for (int partition = 0; partition < partitionCount; partition++) {
+			BlockingQueue<StockMutation> queue = new ArrayBlockingQueue<>(partitionCapacity);
+			partitions.add(queue);
+			Thread consumer = new Thread(() -> consume(queue), "stock-mutation-" + partition);
+			consumer.setDaemon(true);
+			consumers.add(consumer);
+		}
+	}
+
+	@PostConstruct
+	public void start() {
+		consumers.forEach(Thread::start);
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		acceptingLock.writeLock().lock();
+		try {
+			accepting = false;
+		} finally {
+			acceptingLock.writeLock().unlock();
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+		for (Thread consumer : consumers) {
+			consumer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+		}
+		List<StockMutation> pending = new ArrayList<>();
+		partitions.forEach(queue -> queue.drainTo(pending));
+		if (!pending.isEmpty()) {
+			log.warn("{} stock mutations were not applied before shutdown", pending.size());
+			pending.forEach(mutation -> complete(mutation, StockMutationStatus.FAILED, null));
+		}
+	}
+
+	public TicketDTO submit(Long id, int quantityDelta) throws StockMutationQueueFullException {
+		String ticket = UUID.randomUUID().toString();
+		TicketDTO pendingTicket = TicketDTO.builder()
+				.ticket(ticket)
+				.foodId(id)
+				.quantityDelta(quantityDelta)
+				.status(StockMutationStatus.PENDING)
+				.build();
+		acceptingLock.readLock().lock();
+		try {
+			if (!accepting) {
+				throw new StockMutationQueueFullException(id);
+			}
+			savePendingTicket(pendingTicket);
+			if (!partitions.get(Math.floorMod(id.hashCode(), partitions.size())).offer(new StockMutation(ticket, id, quantityDelta))) {
+				removeTicket(ticket);
+				throw new StockMutationQueueFullException(id);
+			}
+		} finally {
+			acceptingLock.readLock().unlock();
+		}
+		return pendingTicket;
+	}
+
+	public synchronized TicketDTO findTicket(String ticket) throws TicketNotFoundException {
+		TicketDTO foundTicket = tickets.get(ticket);
+		if (foundTicket == null) {
+			throw new TicketNotFoundException(ticket);
+		}
+		return foundTicket;
+	}
+
+	private void consume(BlockingQueue<StockMutation> queue) {
+		List<StockMutation> batch = new ArrayList<>(batchSize);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				StockMutation first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					if (!accepting) {
+						return;
+					}
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				applyBatch(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void applyBatch(List<StockMutation> batch) {
+		Map<Long, List<StockMutation>> mutationsById = batch.stream()
+				.collect(Collectors.groupingBy(StockMutation::getFoodId, LinkedHashMap::new, Collectors.toList()));
+		mutationsById.forEach((id, mutations) -> {
+			List<Integer> quantityDeltas = mutations.stream()
+					.map(StockMutation::getQuantityDelta)
+					.collect(Collectors.toList());
+			try {
+				List<StockMutationResult> results = stockBatchService.applyAll(id, quantityDeltas);
+				for (int i = 0; i < mutations.size(); i++) {
+					complete(mutations.get(i), results.get(i).getStatus(), results.get(i).getFood());
+				}
+			} catch (RuntimeException e) {
+				log.error("Failed to apply {} stock mutations for food {}", mutations.size(), id, e);
+				mutations.forEach(mutation -> complete(mutation, StockMutationStatus.FAILED, null));
+			}
+		});
+	}
+
+	private void complete(StockMutation mutation, StockMutationStatus status, FoodDTO food) {
+		saveCompletedTicket(TicketDTO.builder()
+				.ticket(mutation.getTicket())
+				.foodId(mutation.getFoodId())
+				.quantityDelta(mutation.getQuantityDelta())
+				.status(status)
+				.food(food)
+				.build());
+	}
+
+	private synchronized void savePendingTicket(TicketDTO ticket) {
+		tickets.put(ticket.getTicket(), ticket);
+	}
+
+	private synchronized void removeTicket(String ticket) {
+		tickets.remove(ticket);
+	}
+
+	private synchronized void saveCompletedTicket(TicketDTO ticket) {
+		tickets.put(ticket.getTicket(), ticket);
+		completedTickets.add(ticket.getTicket());
+		while (completedTickets.size() > maxTickets) {
+			tickets.remove(completedTickets.poll());
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class StockMutation {
+
+		private final String ticket;
+
+		private final Long foodId;
+
+		private final int quantityDelta;
+	}
+}
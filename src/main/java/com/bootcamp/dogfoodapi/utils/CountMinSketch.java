@@ -0,0 +1,73 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Count-min sketch para estimar a frequência de acesso de ids com memória fixa.
+ *
+ *  Quatro linhas de contadores, cada id cai em um contador por linha e a estimativa é o menor deles
+ *  (nunca abaixo do valor real, às vezes acima por colisão). O incremento é conservador: só sobem os
+ *  contadores iguais ao mínimo. A cada sampleSize incrementos todos os contadores são divididos por
+ *  dois, para a frequência acompanhar o que está quente agora.
+ *
+ *  Os contadores não são atualizados atomicamente de propósito: um incremento perdido numa corrida
+ *  só deixa a estimativa um pouco mais baixa, e o acesso ao cache não paga um lock.
+ * */
+public class CountMinSketch {
+
+	private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+	private final int[] counters;
+	private final int mask;
+	private final long sampleSize;
+	private final AtomicLong additions = new AtomicLong();
+
+	public CountMinSketch(int width, long sampleSize) {
+		int tableWidth = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+		this.counters = new int[SEEDS.length * tableWidth];
+		this.mask = tableWidth - 1;
+		this.sampleSize = sampleSize;
+	}
+
+	public void increment(long key) {
+		add(key, 1);
+	}
+
+	public void add(long key, int count) {
+		int estimate = estimate(key);
+		int target = estimate + count < 0 ? Integer.MAX_VALUE : estimate + count;
+		for (int row = 0; row < SEEDS.length; row++) {
+			int index = indexOf(key, row);
+			if (counters[index] < target) {
+				counters[index] = target;
+			}
+		}
+		if (additions.addAndGet(count) >= sampleSize) {
+			age();
+		}
+	}
+
+	public int estimate(long key) {
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < SEEDS.length; row++) {
+			estimate = Math.min(estimate, counters[indexOf(key, row)]);
+		}
+		return estimate;
+	}
+
+	private synchronized void age() {
+		if (additions.get() < sampleSize) {
+			return;
+		}
+		for (int index = 0; index < counters.length; index++) {
+			counters[index] >>>= 1;
+		}
+		additions.set(0);
+	}
+
+	private int indexOf(long key, int row) {
+		long hash = (key ^ SEEDS[row]) * 0x9E3779B97F4A7C15L;
+		hash ^= hash >>> 29;
+		return row * (mask + 1) + ((int) hash & mask);
+	}
+}
@@ -0,0 +1,164 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ *  Anel de buckets de tamanho fixo (um minuto, uma hora, um dia...) com as unidades que entraram,
+ *  as que saíram e o estoque no fim de cada bucket.
+ *
+ *  O slot de um bucket é o seu número módulo o tamanho do anel; quando o tempo dá a volta o slot
+ *  antigo é reaproveitado, então a memória é constante e as consultas nunca passam de size slots.
+ * */
+public class RollupRing {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private final long bucketMillis;
+	private final long[] bucketNumbers;
+	private final int[] unitsAdded;
+	private final int[] unitsRemoved;
+	private final int[] closingQuantities;
+	private final boolean[] dirty;
+
+	public RollupRing(long bucketMillis, int size) {
+		this.bucketMillis = bucketMillis;
+		this.bucketNumbers = new long[size];
+		this.unitsAdded = new int[size];
+		this.unitsRemoved = new int[size];
+		this.closingQuantities = new int[size];
+		this.dirty = new boolean[size];
+		Arrays.fill(bucketNumbers, EMPTY);
+	}
+
+	public synchronized void record(long epochMillis, int added, int removed, int quantity) {
+		int slot = slotFor(Math.floorDiv(epochMillis, bucketMillis));
+		if (slot < 0) {
+			return;
+		}
+		unitsAdded[slot] += added;
+		unitsRemoved[slot] += removed;
+		closingQuantities[slot] = quantity;
+		dirty[slot] = true;
+	}
+
+	/**
+	 *  Troca o slot pelo bucket lido do banco, então restaurar o mesmo bucket duas vezes não muda
+	 *  nada. O anel deve receber os buckets gravados antes de qualquer record desse food: o que já
+	 *  foi alterado na memória e ainda não gravado (slot marcado) é mais novo que o banco e fica.
+	 * */
+	public synchronized void restore(Bucket bucket) {
+		long bucketNumber = Math.floorDiv(bucket.getStartMillis(), bucketMillis);
+		int slot = slotFor(bucketNumber);
+		if (slot < 0 || dirty[slot]) {
+			return;
+		}
+		unitsAdded[slot] = bucket.getUnitsAdded();
+		unitsRemoved[slot] = bucket.getUnitsRemoved();
+		closingQuantities[slot] = bucket.getClosingQuantity();
+	}
+
+	public synchronized List<Bucket> buckets(long fromMillis, long toMillis) {
+		long first = Math.floorDiv(fromMillis, bucketMillis);
+		long last = Math.floorDiv(toMillis, bucketMillis);
+		List<Bucket> buckets = new ArrayList<>();
+		for (int slot = 0; slot < bucketNumbers.length; slot++) {
+			if (bucketNumbers[slot] != EMPTY && bucketNumbers[slot] >= first && bucketNumbers[slot] <= last) {
+				buckets.add(toBucket(slot));
+			}
+		}
+		buckets.sort(Comparator.comparingLong(Bucket::getStartMillis));
+		return buckets;
+	}
+
+	public synchronized List<Bucket> drainDirty() {
+		List<Bucket> buckets = new ArrayList<>();
+		for (int slot = 0; slot < bucketNumbers.length; slot++) {
+			if (dirty[slot]) {
+				buckets.add(toBucket(slot));
+				dirty[slot] = false;
+			}
+		}
+		return buckets;
+	}
+
+	/**
+	 *  Volta a marcar como alterados os buckets de um drainDirty cuja gravação falhou; um bucket cujo
+	 *  slot já foi reaproveitado por um mais novo fica de fora.
+	 * */
+	public synchronized void markDirty(List<Bucket> buckets) {
+		for (Bucket bucket : buckets) {
+			long bucketNumber = Math.floorDiv(bucket.getStartMillis(), bucketMillis);
+			int slot = (int) Math.floorMod(bucketNumber, (long) bucketNumbers.length);
+			if (bucketNumbers[slot] == bucketNumber) {
+				dirty[slot] = true;
+			}
+		}
+	}
+
+	public synchronized boolean isDirty() {
+		for (boolean slotDirty : dirty) {
+			if (slotDirty) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *  Início do bucket mais recente do anel, ou Long.MIN_VALUE se ele está vazio.
+	 * */
+	public synchronized long latestStartMillis() {
+		long latest = EMPTY;
+		for (long bucketNumber : bucketNumbers) {
+			latest = Math.max(latest, bucketNumber);
+		}
+		return latest == EMPTY ? Long.MIN_VALUE : latest * bucketMillis;
+	}
+
+	public long getBucketMillis() {
+		return bucketMillis;
+	}
+
+	public int size() {
+		return bucketNumbers.length;
+	}
+
+	private int slotFor(long bucketNumber) {
+		int slot = (int) Math.floorMod(bucketNumber, (long) bucketNumbers.length);
+		if (bucketNumbers[slot] == bucketNumber) {
+			return slot;
+		}
+		if (bucketNumbers[slot] != EMPTY && bucketNumbers[slot] > bucketNumber) {
+			return -1;
+		}
+		bucketNumbers[slot] = bucketNumber;
+		unitsAdded[slot] = 0;
+		unitsRemoved[slot] = 0;
+		closingQuantities[slot] = 0;
+		dirty[slot] = false;
+		return slot;
+	}
+
+	private Bucket toBucket(int slot) {
+		return new Bucket(bucketNumbers[slot] * bucketMillis, unitsAdded[slot], unitsRemoved[slot], closingQuantities[slot]);
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class Bucket {
+
+		private final long startMillis;
+
+		private final int unitsAdded;
+
+		private final int unitsRemoved;
+
+		private final int closingQuantity;
+	}
+}
@@ -0,0 +1,78 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ *  Hashed timer wheel: agenda e cancela timeouts em O(1) e expira por tick.
+ *
+ *  Cada timeout fica no slot (deadlineTick % wheelSize); timeouts além de uma volta
+ *  da roda ficam no mesmo slot e só expiram quando o tick atual alcança o deadline.
+ *  A classe não é thread-safe, quem usa deve sincronizar o acesso.
+ * */
+public class TimerWheel<T> {
+
+	private final List<Set<Timeout<T>>> slots;
+	private final long tickMillis;
+	private long currentTick;
+
+	public TimerWheel(int wheelSize, long tickMillis, long startMillis) {
+		this.slots = new ArrayList<>(wheelSize);
+		for (int slot = 0; slot < wheelSize; slot++) {
+			slots.add(new HashSet<>());
+		}
+		this.tickMillis = tickMillis;
+		this.currentTick = startMillis / tickMillis;
+	}
+
+	public Timeout<T> schedule(T item, long deadlineMillis) {
+		long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+		Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+		slotOf(deadlineTick).add(timeout);
+		return timeout;
+	}
+
+	public boolean cancel(Timeout<T> timeout) {
+		return slotOf(timeout.deadlineTick).remove(timeout);
+	}
+
+	public List<T> advance(long nowMillis) {
+		long nowTick = nowMillis / tickMillis;
+		List<T> expired = new ArrayList<>();
+		long ticksToProcess = Math.min(nowTick - currentTick, slots.size());
+		for (long tick = currentTick + 1; tick <= currentTick + ticksToProcess; tick++) {
+			Iterator<Timeout<T>> iterator = slotOf(tick).iterator();
+			while (iterator.hasNext()) {
+				Timeout<T> timeout = iterator.next();
+				if (timeout.deadlineTick <= nowTick) {
+					iterator.remove();
+					expired.add(timeout.item);
+				}
+			}
+		}
+		currentTick = Math.max(currentTick, nowTick);
+		return expired;
+	}
+
+	private Set<Timeout<T>> slotOf(long tick) {
+		return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+	}
+
+	public static final class Timeout<T> {
+
+		private final T item;
+		private final long deadlineTick;
+
+		private Timeout(T item, long deadlineTick) {
+			this.item = item;
+			this.deadlineTick = deadlineTick;
+		}
+
+		public T getItem() {
+			return item;
+		}
+	}
+}
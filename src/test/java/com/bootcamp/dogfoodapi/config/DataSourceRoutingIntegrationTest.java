@@ -0,0 +1,96 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+import com.bootcamp.dogfoodapi.event.InMemoryOutboxSink;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.service.FoodCache;
+import com.bootcamp.dogfoodapi.service.FoodService;
+import com.bootcamp.dogfoodapi.service.OutboxRelay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+		"dogfood.datasource.routing.enabled=true",
+		"dogfood.outbox.relay-millis=3600000",
+		"dogfood.datasource.replica.local-replication=true",
+		"dogfood.datasource.replica.url=jdbc:h2:mem:routing-test-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"spring.datasource.url=jdbc:h2:mem:routing-test-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class DataSourceRoutingIntegrationTest {
+
+	private static final String PRIMARY_ONLY_NAME = "Primary Only";
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private FoodCache foodCache;
+
+	@Autowired
+	private ReadWriteDataSources readWriteDataSources;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private InMemoryOutboxSink inMemoryOutboxSink;
+
+	@AfterEach
+	void tearDown() {
+		ReadWriteRoutingDataSource.clearPin();
+		new JdbcTemplate(readWriteDataSources.getPrimary()).update("DELETE FROM FOOD WHERE NAME = ?", PRIMARY_ONLY_NAME);
+		foodCache.clear();
+	}
+
+	@Test
+	void whenFoodIsCreatedThenReadOnlyQueriesFindItOnTheReplica() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().id(null).name("Replicated Food").build().toFoodDTO();
+
+		FoodDTO createdFoodDTO = foodService.createFood(foodDTO);
+
+		assertThat(foodService.findByName("Replicated Food"), is(equalTo(createdFoodDTO)));
+	}
+
+	@Test
+	void whenRowExistsOnlyOnThePrimaryThenReadOnlyQueriesDoNotSeeIt() {
+		insertOnPrimaryOnly();
+
+		assertThrows(FoodNotFoundException.class, () -> foodService.findByName(PRIMARY_ONLY_NAME));
+	}
+
+	@Test
+	void whenThreadIsPinnedToPrimaryThenReadOnlyQueriesSeePrimaryRows() throws Exception {
+		insertOnPrimaryOnly();
+		ReadWriteRoutingDataSource.pinToPrimary(true);
+
+		assertThat(foodService.findByName(PRIMARY_ONLY_NAME).getName(), is(equalTo(PRIMARY_ONLY_NAME)));
+	}
+
+	@Test
+	void whenRoutingIsEnabledThenOutboxIsRelayedFromThePrimary() throws Exception {
+		FoodDTO createdFoodDTO = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Relayed Food").build().toFoodDTO());
+
+		outboxRelay.relay();
+
+		assertThat(inMemoryOutboxSink.getMessages().stream().map(OutboxMessageDTO::getFoodId).collect(Collectors.toList()),
+				hasItem(createdFoodDTO.getId()));
+	}
+
+	private void insertOnPrimaryOnly() {
+		new JdbcTemplate(readWriteDataSources.getPrimary()).update(
+				"INSERT INTO FOOD (NAME, BRAND, MAX, QUANTITY, TYPE) VALUES (?, 'Mars', 50, 10, 'PREMIUM')", PRIMARY_ONLY_NAME);
+	}
+}
@@ -0,0 +1,43 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest
+@ActiveProfiles("performance")
+public class PerformanceSettingsValidatorTest {
+
+	@Autowired
+	private PerformanceSettingsValidator performanceSettingsValidator;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void whenPerformanceProfileIsActiveThenNoSettingIsReportedAsMisconfigured() {
+		assertThat(performanceSettingsValidator.validate(), is(empty()));
+	}
+
+	@Test
+	void whenPerformanceProfileIsActiveThenPoolAndHibernateSettingsAreApplied() throws Exception {
+		HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+
+		assertThat(hikariDataSource.getMaximumPoolSize(), is(equalTo(10)));
+		assertThat(hikariDataSource.getMinimumIdle(), is(equalTo(10)));
+		assertThat(hikariDataSource.getJdbcUrl(), containsString("QUERY_CACHE_SIZE=64"));
+		assertThat(entityManagerFactory.getProperties(), hasEntry("hibernate.jdbc.batch_size", "50"));
+		assertThat(entityManagerFactory.getProperties(), hasEntry("hibernate.order_updates", "true"));
+	}
+}
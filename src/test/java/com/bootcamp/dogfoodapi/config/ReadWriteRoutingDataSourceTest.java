@@ -0,0 +1,38 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.bootcamp.dogfoodapi.config.ReadWriteRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ReadWriteRoutingDataSourceTest {
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		ReadWriteRoutingDataSource.clearPin();
+	}
+
+	@Test
+	void whenTransactionIsReadOnlyThenReplicaIsUsed() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(ReadWriteRoutingDataSource.currentRoute(), is(Route.REPLICA));
+	}
+
+	@Test
+	void whenTransactionIsReadWriteThenPrimaryIsUsed() {
+		assertThat(ReadWriteRoutingDataSource.currentRoute(), is(Route.PRIMARY));
+	}
+
+	@Test
+	void whenThreadIsPinnedToPrimaryThenReadOnlyTransactionUsesPrimary() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		ReadWriteRoutingDataSource.pinToPrimary(true);
+
+		assertThat(ReadWriteRoutingDataSource.currentRoute(), is(Route.PRIMARY));
+	}
+}
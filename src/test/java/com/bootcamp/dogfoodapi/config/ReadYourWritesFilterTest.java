@@ -0,0 +1,72 @@
+package com.bootcamp.dogfoodapi.config;
+
+import com.bootcamp.dogfoodapi.utils.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ReadYourWritesFilterTest {
+
+	private static final String FOOD_API_URL_PATH = "/api/v1/foods";
+	private static final long WINDOW_MILLIS = 2000;
+
+	private MutableClock clock;
+	private ReadYourWritesFilter readYourWritesFilter;
+
+	@BeforeEach
+	void setUp() {
+		clock = new MutableClock(Instant.parse("2020-06-01T10:00:00Z"));
+		readYourWritesFilter = new ReadYourWritesFilter(WINDOW_MILLIS, 100, clock);
+	}
+
+	@Test
+	void whenClientReadsInsideTheWindowAfterAWriteThenReadIsPinnedToPrimary() throws Exception {
+		perform("PATCH", "client-a", 200);
+		clock.advance(Duration.ofMillis(WINDOW_MILLIS - 1));
+
+		assertThat(perform("GET", "client-a", 200), is(true));
+	}
+
+	@Test
+	void whenWindowHasElapsedThenReadGoesToReplica() throws Exception {
+		perform("PATCH", "client-a", 200);
+		clock.advance(Duration.ofMillis(WINDOW_MILLIS));
+
+		assertThat(perform("GET", "client-a", 200), is(false));
+	}
+
+	@Test
+	void whenAnotherClientWroteThenReadIsNotPinned() throws Exception {
+		perform("POST", "client-a", 201);
+
+		assertThat(perform("GET", "client-b", 200), is(false));
+	}
+
+	@Test
+	void whenWriteFailsThenLaterReadsAreNotPinned() throws Exception {
+		perform("PATCH", "client-a", 400);
+
+		assertThat(perform("GET", "client-a", 200), is(false));
+	}
+
+	private boolean perform(String method, String clientId, int status) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, FOOD_API_URL_PATH);
+		request.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, clientId);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AtomicBoolean pinnedToPrimary = new AtomicBoolean();
+		readYourWritesFilter.doFilter(request, response, (filteredRequest, filteredResponse) -> {
+			pinnedToPrimary.set(ReadWriteRoutingDataSource.isPinnedToPrimary());
+			response.setStatus(status);
+		});
+		assertThat(ReadWriteRoutingDataSource.isPinnedToPrimary(), is(false));
+		return pinnedToPrimary.get();
+	}
+}
@@ -0,0 +1,160 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.QuantityDTO;
+import com.bootcamp.dogfoodapi.service.FoodService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.bootcamp.dogfoodapi.utils.JsonConvertionUtils.asJsonString;
+import static com.bootcamp.dogfoodapi.utils.QueryBudgetAssertions.countQueries;
+import static com.bootcamp.dogfoodapi.utils.QueryBudgetAssertions.queryCount;
+import static com.bootcamp.dogfoodapi.utils.QueryBudgetAssertions.withinQueryBudget;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"dogfood.coalescing.enabled=false",
+		"dogfood.outbox.relay-millis=3600000",
+		"spring.datasource.url=jdbc:h2:mem:query-budget-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+public class FoodControllerQueryBudgetTest {
+
+	private static final String FOOD_API_URL_PATH = "/api/v1/foods";
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private FoodDTO foodDTO;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		foodDTO = foodService.createFood(FoodDTOBuilder.builder()
+				.id(null)
+				.name("Query Budget " + SEQUENCE.incrementAndGet())
+				.build()
+				.toFoodDTO());
+	}
+
+	@Test
+	void whenFoodIsCreatedThenQueryBudgetIsRespected() throws Exception {
+		FoodDTO newFoodDTO = FoodDTOBuilder.builder().id(null).name("Query Budget New " + SEQUENCE.incrementAndGet()).build().toFoodDTO();
+
+		mockMvc.perform(MockMvcRequestBuilders.post(FOOD_API_URL_PATH)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(newFoodDTO)))
+				.andExpect(status().isCreated())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(3));
+	}
+
+	@Test
+	void whenFoodIsFoundByNameThenQueryBudgetIsRespected() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/" + foodDTO.getName()))
+				.andExpect(status().isOk())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(1));
+	}
+
+	@Test
+	void whenFoodsAreListedThenQueryBudgetIsRespected() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH))
+				.andExpect(status().isOk())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(1));
+	}
+
+	@Test
+	void whenFoodsAreSearchedThenQueryBudgetIsRespected() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH).param("q", "query budget"))
+				.andExpect(status().isOk())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(1));
+	}
+
+	@Test
+	void whenStockIsIncrementedThenQueryBudgetIsRespected() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + foodDTO.getId() + "/increment")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(QuantityDTO.builder().quantity(5).build())))
+				.andExpect(status().isOk())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(3));
+	}
+
+	@Test
+	void whenStockIsDecrementedThenQueryBudgetIsRespected() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + foodDTO.getId() + "/decrement")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(QuantityDTO.builder().quantity(5).build())))
+				.andExpect(status().isOk())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(3));
+	}
+
+	@Test
+	void whenDecrementExceedsStockThenOnlyTheLookupIsExecuted() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + foodDTO.getId() + "/decrement")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(QuantityDTO.builder().quantity(50).build())))
+				.andExpect(status().isBadRequest())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(1));
+	}
+
+	@Test
+	void whenFoodIsDeletedThenQueryBudgetIsRespected() throws Exception {
+		mockMvc.perform(MockMvcRequestBuilders.delete(FOOD_API_URL_PATH + "/" + foodDTO.getId()))
+				.andExpect(status().isNoContent())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(4));
+	}
+
+	@Test
+	void whenFoodsAreDeletedByFilterThenQueryBudgetIsRespected() throws Exception {
+		String brand = "Query Budget Brand " + SEQUENCE.incrementAndGet();
+		for (int i = 0; i < 2; i++) {
+			foodService.createFood(FoodDTOBuilder.builder().id(null).name(brand + " " + i).brand(brand).build().toFoodDTO());
+		}
+
+		mockMvc.perform(MockMvcRequestBuilders.delete(FOOD_API_URL_PATH).param("brand", brand))
+				.andExpect(status().isOk())
+				.andExpect(withinQueryBudget())
+				.andExpect(queryCount(6));
+	}
+
+	@Test
+	void whenServiceIsCalledDirectlyThenQueriesAreCounted() throws Throwable {
+		assertThat(countQueries(() -> foodService.findByName(foodDTO.getName())), is(equalTo(1)));
+	}
+
+	@Test
+	void whenSqlIsRunThroughJdbcTemplateThenItIsCountedWhenExecuted() throws Throwable {
+		assertThat(countQueries(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM food", Long.class)), is(equalTo(1)));
+		assertThat(countQueries(() -> jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+			connection.prepareStatement("SELECT 1").close();
+			return null;
+		})), is(equalTo(0)));
+	}
+}
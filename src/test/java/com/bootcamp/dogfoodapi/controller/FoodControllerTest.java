@@ -3,8 +3,14 @@ package com.bootcamp.dogfoodapi.controller;
 import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
 import com.bootcamp.dogfoodapi.dto.FoodDTO;
 import com.bootcamp.dogfoodapi.dto.QuantityDTO;
+import com.bootcamp.dogfoodapi.dto.TicketDTO;
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
 import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.StockMutationQueueFullException;
 import com.bootcamp.dogfoodapi.service.FoodService;
+import com.bootcamp.dogfoodapi.service.IdempotencyService;
+import com.bootcamp.dogfoodapi.service.StockMutationQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +27,8 @@ import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.mock.http.server.reactive.MockServerHttpRequest.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -30,6 +38,7 @@ import static com.bootcamp.dogfoodapi.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.core.Is.is;
 
 import java.util.Collections;
+import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 public class FoodControllerTest {
@@ -45,6 +54,12 @@ public class FoodControllerTest {
 	@Mock
 	private FoodService foodService;
 
+	@Mock
+	private IdempotencyService idempotencyService;
+
+	@Mock
+	private StockMutationQueue stockMutationQueue;
+
 	@InjectMocks
 	private FoodController foodController;
 
@@ -100,6 +115,18 @@ public class FoodControllerTest {
 				.andExpect(jsonPath("$.type", is(foodDTO.getType().toString())));
 	}
 
+	@Test
+	void whenGETIsCalledWithNameSearchThenTheFoodIsFoundByName() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().name("search").build().toFoodDTO();
+
+		when(foodService.findByName("search")).thenReturn(foodDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/search")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name", is("search")));
+	}
+
 	@Test
 	void whenGETIsCalledWithoutRegisteredNameThenNotFoundStatusIsReturned() throws Exception {
 		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
@@ -156,6 +183,17 @@ public class FoodControllerTest {
 				.andExpect(status().isNotFound());
 	}
 
+	@Test
+	void whenDELETEIsCalledWithBrandFilterThenDeletedCountIsReturned() throws Exception {
+		when(foodService.deleteByFilter("Mars", FoodType.PREMIUM)).thenReturn(3);
+
+		mockMvc.perform(MockMvcRequestBuilders.delete(FOOD_API_URL_PATH)
+				.param("brand", "Mars")
+				.param("type", "PREMIUM"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deleted", is(3)));
+	}
+
 	@Test
 	void whenPATCHIsCalledToIncrementDiscountThenOKstatusIsReturned() throws Exception {
 		QuantityDTO quantityDTO = QuantityDTO.builder()
@@ -176,4 +214,95 @@ public class FoodControllerTest {
 				.andExpect(jsonPath("$.quantity", is(foodDTO.getQuantity())));
 	}
 
+	@Test
+	void whenPATCHIsRetriedWithSameIdempotencyKeyThenCachedResponseIsReturned() throws Exception {
+		QuantityDTO quantityDTO = QuantityDTO.builder()
+				.quantity(5)
+				.build();
+
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		foodDTO.setQuantity(foodDTO.getQuantity() - quantityDTO.getQuantity());
+
+		when(idempotencyService.findOrLock("retry-key", "decrement:" + VALID_FOOD_ID, quantityDTO)).thenReturn(Optional.of(foodDTO));
+
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + FOOD_API_SUBPATH_DECREMENT_URL)
+				.header("Idempotency-Key", "retry-key")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(quantityDTO))).andExpect(status().isOk())
+				.andExpect(jsonPath("$.quantity", is(foodDTO.getQuantity())));
+
+		verify(foodService, never()).decrement(VALID_FOOD_ID, quantityDTO.getQuantity());
+	}
+
+	@Test
+	void whenAsyncPATCHIsCalledToDecrementThenAcceptedStatusIsReturned() throws Exception {
+		QuantityDTO quantityDTO = QuantityDTO.builder()
+				.quantity(5)
+				.build();
+
+		TicketDTO ticketDTO = TicketDTO.builder()
+				.ticket("b7c0a0f6")
+				.foodId(VALID_FOOD_ID)
+				.quantityDelta(-quantityDTO.getQuantity())
+				.status(StockMutationStatus.PENDING)
+				.build();
+
+		when(stockMutationQueue.submit(VALID_FOOD_ID, -quantityDTO.getQuantity())).thenReturn(ticketDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + FOOD_API_SUBPATH_DECREMENT_URL)
+				.param("async", "true")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(quantityDTO))).andExpect(status().isAccepted())
+				.andExpect(jsonPath("$.ticket", is(ticketDTO.getTicket())))
+				.andExpect(jsonPath("$.status", is(StockMutationStatus.PENDING.toString())));
+	}
+
+	@Test
+	void whenAsyncQueueIsFullThenServiceUnavailableStatusIsReturned() throws Exception {
+		QuantityDTO quantityDTO = QuantityDTO.builder()
+				.quantity(5)
+				.build();
+
+		when(stockMutationQueue.submit(VALID_FOOD_ID, -quantityDTO.getQuantity()))
+				.thenThrow(new StockMutationQueueFullException(VALID_FOOD_ID));
+
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + FOOD_API_SUBPATH_DECREMENT_URL)
+				.param("async", "true")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(quantityDTO))).andExpect(status().isServiceUnavailable());
+	}
+
+	@Test
+	void whenGETTicketIsCalledThenTicketStatusIsReturned() throws Exception {
+		TicketDTO ticketDTO = TicketDTO.builder()
+				.ticket("b7c0a0f6")
+				.foodId(VALID_FOOD_ID)
+				.quantityDelta(2)
+				.status(StockMutationStatus.APPLIED)
+				.food(FoodDTOBuilder.builder().build().toFoodDTO())
+				.build();
+
+		when(stockMutationQueue.findTicket(ticketDTO.getTicket())).thenReturn(ticketDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/tickets/" + ticketDTO.getTicket())
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status", is(StockMutationStatus.APPLIED.toString())))
+				.andExpect(jsonPath("$.food.name", is(ticketDTO.getFood().getName())));
+	}
+
+	@Test
+	void whenGETSearchIsCalledThenRankedFoodsAreReturned() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+
+		when(foodService.search("magn", 5)).thenReturn(Collections.singletonList(foodDTO));
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH)
+				.param("q", "magn")
+				.param("limit", "5")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name", is(foodDTO.getName())));
+	}
+
 }
@@ -0,0 +1,74 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.dto.FoodStockDTO;
+import com.bootcamp.dogfoodapi.dto.LocationStockDTO;
+import com.bootcamp.dogfoodapi.dto.QuantityDTO;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.service.FoodStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static com.bootcamp.dogfoodapi.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class FoodStockControllerTest {
+
+	private static final String FOOD_API_URL_PATH = "/api/v1/foods";
+	private static final long VALID_FOOD_ID = 1L;
+
+	private MockMvc mockMvc;
+
+	@Mock
+	private FoodStockService foodStockService;
+
+	@InjectMocks
+	private FoodStockController foodStockController;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.standaloneSetup(foodStockController).build();
+	}
+
+	@Test
+	void whenPATCHIsCalledToIncrementALocationThenLocationStockIsReturned() throws Exception {
+		FoodStockDTO foodStockDTO = FoodStockDTO.builder()
+				.foodId(VALID_FOOD_ID)
+				.max(50)
+				.quantity(15)
+				.locations(List.of(new LocationStockDTO("default", 10), new LocationStockDTO("north", 5)))
+				.build();
+		when(foodStockService.increment(VALID_FOOD_ID, "north", 5)).thenReturn(foodStockDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/stock/north/increment")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(QuantityDTO.builder().quantity(5).build())))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.quantity", is(15)))
+				.andExpect(jsonPath("$.locations[1].location", is("north")))
+				.andExpect(jsonPath("$.locations[1].quantity", is(5)));
+	}
+
+	@Test
+	void whenPATCHIsCalledToDecrementMoreThanLocationStockThenBadRequestStatusIsReturned() throws Exception {
+		when(foodStockService.decrement(VALID_FOOD_ID, "north", 50)).thenThrow(FoodStockExceededException.class);
+
+		mockMvc.perform(MockMvcRequestBuilders.patch(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/stock/north/decrement")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(QuantityDTO.builder().quantity(50).build())))
+				.andExpect(status().isBadRequest());
+	}
+}
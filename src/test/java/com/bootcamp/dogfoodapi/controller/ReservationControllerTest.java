@@ -0,0 +1,107 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.dto.AvailabilityDTO;
+import com.bootcamp.dogfoodapi.dto.ReservationDTO;
+import com.bootcamp.dogfoodapi.dto.ReservationRequestDTO;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.ReservationNotFoundException;
+import com.bootcamp.dogfoodapi.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static com.bootcamp.dogfoodapi.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationControllerTest {
+
+	private static final String FOOD_API_URL_PATH = "/api/v1/foods";
+	private static final long VALID_FOOD_ID = 1L;
+	private static final String RESERVATION_ID = "0c9e2a5d";
+
+	private MockMvc mockMvc;
+
+	@Mock
+	private ReservationService reservationService;
+
+	@InjectMocks
+	private ReservationController reservationController;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.standaloneSetup(reservationController).build();
+	}
+
+	@Test
+	void whenPOSTIsCalledThenAReservationIsCreated() throws Exception {
+		ReservationRequestDTO reservationRequestDTO = ReservationRequestDTO.builder()
+				.quantity(3)
+				.ttlSeconds(300)
+				.build();
+		ReservationDTO reservationDTO = ReservationDTO.builder()
+				.id(RESERVATION_ID)
+				.foodId(VALID_FOOD_ID)
+				.quantity(3)
+				.build();
+
+		when(reservationService.reserve(VALID_FOOD_ID, 3, 300)).thenReturn(reservationDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.post(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/reservations")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(reservationRequestDTO)))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id", is(RESERVATION_ID)))
+				.andExpect(jsonPath("$.quantity", is(3)));
+	}
+
+	@Test
+	void whenPOSTIsCalledWithoutAvailableStockThenBadRequestStatusIsReturned() throws Exception {
+		ReservationRequestDTO reservationRequestDTO = ReservationRequestDTO.builder()
+				.quantity(30)
+				.ttlSeconds(300)
+				.build();
+
+		when(reservationService.reserve(VALID_FOOD_ID, 30, 300)).thenThrow(FoodStockExceededException.class);
+
+		mockMvc.perform(MockMvcRequestBuilders.post(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/reservations")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(reservationRequestDTO)))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void whenDELETEIsCalledWithExpiredReservationThenNotFoundStatusIsReturned() throws Exception {
+		doThrow(ReservationNotFoundException.class).when(reservationService).release(RESERVATION_ID);
+
+		mockMvc.perform(MockMvcRequestBuilders.delete(FOOD_API_URL_PATH + "/reservations/" + RESERVATION_ID))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void whenGETAvailabilityIsCalledThenHeldUnitsAreReturned() throws Exception {
+		AvailabilityDTO availabilityDTO = AvailabilityDTO.builder()
+				.foodId(VALID_FOOD_ID)
+				.quantity(10)
+				.held(4)
+				.available(6)
+				.build();
+
+		when(reservationService.availability(VALID_FOOD_ID)).thenReturn(availabilityDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/availability"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.available", is(6)));
+	}
+}
@@ -0,0 +1,84 @@
+package com.bootcamp.dogfoodapi.controller;
+
+import com.bootcamp.dogfoodapi.dto.StockHistoryBucketDTO;
+import com.bootcamp.dogfoodapi.dto.StockHistoryDTO;
+import com.bootcamp.dogfoodapi.dto.StockProjectionDTO;
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.service.StockHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHistoryControllerTest {
+
+	private static final String FOOD_API_URL_PATH = "/api/v1/foods";
+	private static final long VALID_FOOD_ID = 1L;
+	private static final long INVALID_FOOD_ID = 2L;
+
+	private MockMvc mockMvc;
+
+	@Mock
+	private StockHistoryService stockHistoryService;
+
+	@InjectMocks
+	private StockHistoryController stockHistoryController;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.standaloneSetup(stockHistoryController).build();
+	}
+
+	@Test
+	void whenGETHistoryIsCalledWithResolutionThenBucketsAreReturned() throws Exception {
+		StockHistoryDTO stockHistoryDTO = StockHistoryDTO.builder()
+				.foodId(VALID_FOOD_ID)
+				.resolution(HistoryResolution.DAY)
+				.buckets(Collections.singletonList(StockHistoryBucketDTO.builder().unitsAdded(0).unitsRemoved(6).closingQuantity(4).build()))
+				.build();
+		when(stockHistoryService.history(VALID_FOOD_ID, HistoryResolution.DAY)).thenReturn(stockHistoryDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/history")
+				.param("resolution", "DAY"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.resolution", is("DAY")))
+				.andExpect(jsonPath("$.buckets[0].unitsRemoved", is(6)));
+	}
+
+	@Test
+	void whenGETProjectionIsCalledThenDaysUntilEmptyIsReturned() throws Exception {
+		StockProjectionDTO stockProjectionDTO = StockProjectionDTO.builder()
+				.foodId(VALID_FOOD_ID)
+				.quantity(10)
+				.unitsRemovedPerDay(5.0)
+				.daysUntilEmpty(2.0)
+				.build();
+		when(stockHistoryService.projection(VALID_FOOD_ID)).thenReturn(stockProjectionDTO);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/" + VALID_FOOD_ID + "/projection"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.daysUntilEmpty", is(2.0)));
+	}
+
+	@Test
+	void whenGETProjectionIsCalledWithInvalidIdThenNotFoundStatusIsReturned() throws Exception {
+		when(stockHistoryService.projection(INVALID_FOOD_ID)).thenThrow(FoodNotFoundException.class);
+
+		mockMvc.perform(MockMvcRequestBuilders.get(FOOD_API_URL_PATH + "/" + INVALID_FOOD_ID + "/projection"))
+				.andExpect(status().isNotFound());
+	}
+}
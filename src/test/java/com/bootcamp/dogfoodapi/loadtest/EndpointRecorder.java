@@ -0,0 +1,67 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *  Latências (em nanos) e status de um endpoint. Cada usuário virtual tem o seu recorder,
+ *  sem sincronização; no fim os recorders de todos os usuários são juntados com merge.
+ * */
+public class EndpointRecorder {
+
+	private final String endpoint;
+	private long[] latencies = new long[1024];
+	private int count;
+	private long errors;
+	private final Map<Integer, Long> statuses = new TreeMap<>();
+
+	public EndpointRecorder(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	public void record(long latencyNanos, int status, boolean error) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = latencyNanos;
+		statuses.merge(status, 1L, Long::sum);
+		if (error) {
+			errors++;
+		}
+	}
+
+	public EndpointRecorder merge(EndpointRecorder other) {
+		EndpointRecorder merged = new EndpointRecorder(endpoint);
+		merged.latencies = Arrays.copyOf(latencies, count + other.count);
+		System.arraycopy(other.latencies, 0, merged.latencies, count, other.count);
+		merged.count = count + other.count;
+		merged.errors = errors + other.errors;
+		merged.statuses.putAll(statuses);
+		other.statuses.forEach((status, total) -> merged.statuses.merge(status, total, Long::sum));
+		return merged;
+	}
+
+	public LoadReport.EndpointReport toReport(int durationSeconds) {
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		return LoadReport.EndpointReport.builder()
+				.requests(count)
+				.errors(errors)
+				.rps((double) count / durationSeconds)
+				.p50Millis(percentileMillis(sorted, 0.50))
+				.p99Millis(percentileMillis(sorted, 0.99))
+				.p999Millis(percentileMillis(sorted, 0.999))
+				.errorRate(count == 0 ? 0 : (double) errors / count)
+				.statuses(new TreeMap<>(statuses))
+				.build();
+	}
+
+	private static double percentileMillis(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = Math.max((int) Math.ceil(percentile * sorted.length) - 1, 0);
+		return sorted[index] / 1_000_000.0;
+	}
+}
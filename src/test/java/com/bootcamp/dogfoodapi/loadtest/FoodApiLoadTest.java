@@ -0,0 +1,52 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ *  Teste de carga HTTP: mvn -Ploadtest test
+ *
+ *  Sobe a aplicação com H2 numa porta aleatória, roda os workloads de loadtest/workloads.json,
+ *  grava target/loadtest/report.json e falha se algum endpoint piorar em relação ao baseline.
+ *  Um baseline novo, com os números desta execução, fica em target/loadtest/baseline-candidate.json.
+ * */
+@Slf4j
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class FoodApiLoadTest {
+
+	private static final String WORKLOADS = "/loadtest/workloads.json";
+	private static final Path REPORT = Paths.get("target", "loadtest", "report.json");
+	private static final Path BASELINE_CANDIDATE = Paths.get("target", "loadtest", "baseline-candidate.json");
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void whenWorkloadsRunThenNoEndpointRegressesAgainstTheBaseline() throws Exception {
+		LoadTestPlan plan = LoadTestPlan.load(WORKLOADS);
+		PostmanCollection collection = PostmanCollection.load(Paths.get(plan.getCollection()));
+		LoadBaseline baseline = LoadBaseline.load(Paths.get(System.getProperty("loadtest.baseline",
+				"src/test/resources/loadtest/baseline.json")));
+
+		LoadReport report = new LoadDriver(plan, collection, "http://localhost:" + port).run();
+		report.write(REPORT);
+		report.toBaseline(baseline.getTolerance()).write(BASELINE_CANDIDATE);
+		report.getEndpoints().forEach((endpoint, result) -> log.info("{}: {} requests, {} rps, p50 {} ms, p99 {} ms, p999 {} ms, error rate {}",
+				endpoint, result.getRequests(), String.format("%.1f", result.getRps()), result.getP50Millis(),
+				result.getP99Millis(), result.getP999Millis(), String.format("%.4f", result.getErrorRate())));
+
+		List<String> regressions = report.regressionsAgainst(baseline);
+		assertThat(String.join("\n", regressions), regressions, empty());
+	}
+}
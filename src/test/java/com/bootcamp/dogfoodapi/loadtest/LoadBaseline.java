@@ -0,0 +1,48 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *  Limites por endpoint que a execução não pode piorar. A tolerância é aplicada sobre o RPS
+ *  mínimo e o p99 máximo; a taxa de erro não tem tolerância.
+ * */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadBaseline {
+
+	private double tolerance;
+
+	private Map<String, EndpointBudget> endpoints = new TreeMap<>();
+
+	public static LoadBaseline load(Path file) throws IOException {
+		return new ObjectMapper().readValue(file.toFile(), LoadBaseline.class);
+	}
+
+	public void write(Path file) throws IOException {
+		Files.createDirectories(file.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class EndpointBudget {
+
+		private double minRps;
+
+		private double maxP99Millis;
+
+		private double maxErrorRate;
+	}
+}
@@ -0,0 +1,237 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import com.bootcamp.dogfoodapi.loadtest.LoadTestPlan.RequestMix;
+import com.bootcamp.dogfoodapi.loadtest.LoadTestPlan.Target;
+import com.bootcamp.dogfoodapi.loadtest.LoadTestPlan.Workload;
+import com.bootcamp.dogfoodapi.loadtest.PostmanCollection.PostmanRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Gerador de carga em malha fechada: cada usuário virtual sorteia um workload e um request
+ *  (pelos pesos do plano), espera a resposta e sorteia o próximo.
+ *
+ *  Antes da medição o driver cria o catálogo e o SKU quente com o request de create da collection.
+ *  As respostas do aquecimento não entram no relatório.
+ * */
+@Slf4j
+public class LoadDriver {
+
+	private static final String CREATE_REQUEST = "Create food Copy";
+	private static final String FOODS_SEGMENT = "foods";
+	private static final String[] BRANDS = {"Mars", "Nestle", "Hill's", "Royal Canin", "Purina"};
+
+	private final LoadTestPlan plan;
+	private final PostmanCollection collection;
+	private final String baseUrl;
+	private final HttpClient httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final List<String> catalogNames = new ArrayList<>();
+	private long hotFoodId;
+
+	public LoadDriver(LoadTestPlan plan, PostmanCollection collection, String baseUrl) {
+		this.plan = plan;
+		this.collection = collection;
+		this.baseUrl = baseUrl;
+	}
+
+	public LoadReport run() throws Exception {
+		seedCatalog();
+		WeightedChoice<WeightedChoice<RequestTemplate>> workloads = new WeightedChoice<>();
+		for (Workload workload : plan.getWorkloads()) {
+			WeightedChoice<RequestTemplate> requests = new WeightedChoice<>();
+			workload.getRequests().forEach(mix -> requests.add(new RequestTemplate(mix, collection.get(mix.getRequest())), mix.getWeight()));
+			workloads.add(requests, workload.getWeight());
+		}
+
+		long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(plan.getWarmupSeconds());
+		long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(plan.getDurationSeconds());
+		ExecutorService users = Executors.newFixedThreadPool(plan.getUsers());
+		List<Future<Map<String, EndpointRecorder>>> results = new ArrayList<>();
+		for (int user = 0; user < plan.getUsers(); user++) {
+			int userId = user;
+			results.add(users.submit(() -> runUser(userId, workloads, measureFrom, measureUntil)));
+		}
+		Map<String, EndpointRecorder> merged = new TreeMap<>();
+		for (Future<Map<String, EndpointRecorder>> result : results) {
+			result.get().forEach((endpoint, recorder) -> merged.merge(endpoint, recorder, EndpointRecorder::merge));
+		}
+		users.shutdown();
+
+		LoadReport report = LoadReport.builder()
+				.profiles(System.getProperty("spring.profiles.active", "default"))
+				.users(plan.getUsers())
+				.durationSeconds(plan.getDurationSeconds())
+				.build();
+		merged.forEach((endpoint, recorder) -> report.getEndpoints().put(endpoint, recorder.toReport(plan.getDurationSeconds())));
+		report.setTotal(merged.values().stream()
+				.reduce(EndpointRecorder::merge)
+				.orElseGet(() -> new EndpointRecorder("total"))
+				.toReport(plan.getDurationSeconds()));
+		return report;
+	}
+
+	private Map<String, EndpointRecorder> runUser(int user, WeightedChoice<WeightedChoice<RequestTemplate>> workloads,
+												  long measureFrom, long measureUntil) throws InterruptedException {
+		SplittableRandom random = new SplittableRandom(plan.getSeed() + user);
+		Map<String, EndpointRecorder> recorders = new HashMap<>();
+		long sequence = 0;
+		while (System.nanoTime() < measureUntil) {
+			RequestTemplate template = workloads.pick(random).pick(random);
+			HttpRequest request = template.toHttpRequest(random, user + "-" + sequence++);
+			long startedAt = System.nanoTime();
+			int status;
+			try {
+				status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			} catch (IOException e) {
+				status = -1;
+			}
+			long latency = System.nanoTime() - startedAt;
+			if (startedAt >= measureFrom) {
+				recorders.computeIfAbsent(template.getEndpoint(), EndpointRecorder::new)
+						.record(latency, status, !template.isExpected(status));
+			}
+		}
+		return recorders;
+	}
+
+	private void seedCatalog() throws IOException, InterruptedException {
+		PostmanRequest create = collection.get(CREATE_REQUEST);
+		ObjectNode hotFood = (ObjectNode) objectMapper.readTree(create.getBody());
+		hotFood.put("name", "loadtest hot sku").put("max", 500).put("quantity", 100);
+		hotFoodId = post(create, hotFood).path("id").asLong();
+		for (int i = 0; i < plan.getCatalogSize(); i++) {
+			ObjectNode food = (ObjectNode) objectMapper.readTree(create.getBody());
+			food.put("name", "loadtest food " + i).put("brand", BRANDS[i % BRANDS.length]);
+			post(create, food);
+			catalogNames.add(food.path("name").asText());
+		}
+		log.info("Seeded {} foods, hot SKU is {}", catalogNames.size() + 1, hotFoodId);
+	}
+
+	private JsonNode post(PostmanRequest create, ObjectNode body) throws IOException, InterruptedException {
+		HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + create.getPath()))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 201) {
+			throw new IllegalStateException("Could not seed " + body + ": HTTP " + response.statusCode());
+		}
+		return objectMapper.readTree(response.body());
+	}
+
+	/**
+	 *  Request da collection com o path já separado em segmentos, para trocar o id ou o nome
+	 *  que vem depois de /foods sem refazer o parse a cada chamada.
+	 * */
+	private class RequestTemplate {
+
+		private final RequestMix mix;
+		private final PostmanRequest request;
+		private final String[] segments;
+		private final int variableSegment;
+		private final String endpoint;
+
+		RequestTemplate(RequestMix mix, PostmanRequest request) {
+			this.mix = mix;
+			this.request = request;
+			this.segments = request.getPath().split("/");
+			int foodsSegment = List.of(segments).indexOf(FOODS_SEGMENT);
+			this.variableSegment = foodsSegment >= 0 && foodsSegment + 1 < segments.length ? foodsSegment + 1 : -1;
+			this.endpoint = request.getMethod() + " " + path(mix.getTarget() == Target.CATALOG ? "{name}" : "{id}");
+		}
+
+		String getEndpoint() {
+			return endpoint;
+		}
+
+		boolean isExpected(int status) {
+			return mix.getExpectedStatus().isEmpty() ? status >= 200 && status < 300 : mix.getExpectedStatus().contains(status);
+		}
+
+		HttpRequest toHttpRequest(SplittableRandom random, String uniqueSuffix) {
+			String path;
+			if (mix.getTarget() == Target.CATALOG) {
+				path = path(URLEncoder.encode(catalogNames.get(random.nextInt(catalogNames.size())), StandardCharsets.UTF_8).replace("+", "%20"));
+			} else if (mix.getTarget() == Target.HOT) {
+				path = path(String.valueOf(hotFoodId));
+			} else {
+				path = request.getPath().replace(" ", "%20");
+			}
+			String body = request.getBody();
+			if (mix.getTarget() == Target.NEW) {
+				body = renamed(body, "loadtest new " + uniqueSuffix);
+			}
+			return HttpRequest.newBuilder(URI.create(baseUrl + path))
+					.header("Content-Type", "application/json")
+					.method(request.getMethod(), body == null
+							? HttpRequest.BodyPublishers.noBody()
+							: HttpRequest.BodyPublishers.ofString(body))
+					.build();
+		}
+
+		private String path(String variable) {
+			if (variableSegment < 0) {
+				return request.getPath();
+			}
+			String[] replaced = segments.clone();
+			replaced[variableSegment] = variable;
+			return String.join("/", replaced);
+		}
+
+		private String renamed(String body, String name) {
+			try {
+				return ((ObjectNode) objectMapper.readTree(body)).put("name", name).toString();
+			} catch (IOException e) {
+				throw new IllegalStateException("Invalid body for " + mix.getRequest(), e);
+			}
+		}
+	}
+
+	private static class WeightedChoice<T> {
+
+		private final List<T> items = new ArrayList<>();
+		private final List<Integer> cumulativeWeights = new ArrayList<>();
+		private int totalWeight;
+
+		void add(T item, int weight) {
+			totalWeight += weight;
+			items.add(item);
+			cumulativeWeights.add(totalWeight);
+		}
+
+		T pick(SplittableRandom random) {
+			int point = random.nextInt(totalWeight);
+			for (int i = 0; i < items.size(); i++) {
+				if (point < cumulativeWeights.get(i)) {
+					return items.get(i);
+				}
+			}
+			throw new IllegalStateException("Empty weighted choice");
+		}
+	}
+}
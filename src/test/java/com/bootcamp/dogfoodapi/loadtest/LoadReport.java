@@ -0,0 +1,94 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *  Resultado de uma execução do LoadDriver: RPS, percentis de latência e taxa de erro por endpoint.
+ * */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadReport {
+
+	private String profiles;
+
+	private int users;
+
+	private int durationSeconds;
+
+	private EndpointReport total;
+
+	@Builder.Default
+	private Map<String, EndpointReport> endpoints = new TreeMap<>();
+
+	public void write(Path file) throws IOException {
+		Files.createDirectories(file.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+	}
+
+	public LoadBaseline toBaseline(double tolerance) {
+		Map<String, LoadBaseline.EndpointBudget> budgets = new TreeMap<>();
+		endpoints.forEach((endpoint, report) -> budgets.put(endpoint, new LoadBaseline.EndpointBudget(
+				report.getRps(), report.getP99Millis(), report.getErrorRate())));
+		return new LoadBaseline(tolerance, budgets);
+	}
+
+	public List<String> regressionsAgainst(LoadBaseline baseline) {
+		List<String> regressions = new ArrayList<>();
+		double tolerance = baseline.getTolerance();
+		baseline.getEndpoints().forEach((endpoint, budget) -> {
+			EndpointReport report = endpoints.get(endpoint);
+			if (report == null) {
+				regressions.add(endpoint + ": no requests were made");
+				return;
+			}
+			if (report.getRps() < budget.getMinRps() * (1 - tolerance)) {
+				regressions.add(String.format("%s: %.1f rps is below the baseline of %.1f rps", endpoint, report.getRps(), budget.getMinRps()));
+			}
+			if (report.getP99Millis() > budget.getMaxP99Millis() * (1 + tolerance)) {
+				regressions.add(String.format("%s: p99 of %.2f ms is above the baseline of %.2f ms", endpoint, report.getP99Millis(), budget.getMaxP99Millis()));
+			}
+			if (report.getErrorRate() > budget.getMaxErrorRate()) {
+				regressions.add(String.format("%s: error rate of %.4f is above the baseline of %.4f", endpoint, report.getErrorRate(), budget.getMaxErrorRate()));
+			}
+		});
+		return regressions;
+	}
+
+	@Data
+	@Builder
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class EndpointReport {
+
+		private long requests;
+
+		private long errors;
+
+		private double rps;
+
+		private double p50Millis;
+
+		private double p99Millis;
+
+		private double p999Millis;
+
+		private double errorRate;
+
+		private Map<Integer, Long> statuses;
+	}
+}
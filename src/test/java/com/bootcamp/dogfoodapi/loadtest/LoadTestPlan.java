@@ -0,0 +1,81 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Plano de carga lido de src/test/resources/loadtest/workloads.json.
+ *
+ *  Cada workload é uma mistura ponderada de requests da collection do Postman (pelo nome do item).
+ *  users, warmupSeconds e durationSeconds podem ser sobrescritos por -Dloadtest.users etc.
+ * */
+@Data
+@NoArgsConstructor
+public class LoadTestPlan {
+
+	private String collection;
+
+	private int users;
+
+	private int warmupSeconds;
+
+	private int durationSeconds;
+
+	private int catalogSize;
+
+	private long seed;
+
+	private List<Workload> workloads = new ArrayList<>();
+
+	public static LoadTestPlan load(String resource) throws IOException {
+		try (InputStream input = LoadTestPlan.class.getResourceAsStream(resource)) {
+			LoadTestPlan plan = new ObjectMapper().readValue(input, LoadTestPlan.class);
+			plan.setUsers(Integer.getInteger("loadtest.users", plan.getUsers()));
+			plan.setWarmupSeconds(Integer.getInteger("loadtest.warmupSeconds", plan.getWarmupSeconds()));
+			plan.setDurationSeconds(Integer.getInteger("loadtest.durationSeconds", plan.getDurationSeconds()));
+			return plan;
+		}
+	}
+
+	@Data
+	@NoArgsConstructor
+	public static class Workload {
+
+		private String name;
+
+		private int weight;
+
+		private List<RequestMix> requests = new ArrayList<>();
+	}
+
+	@Data
+	@NoArgsConstructor
+	public static class RequestMix {
+
+		private String request;
+
+		private int weight;
+
+		private Target target = Target.NONE;
+
+		private List<Integer> expectedStatus = new ArrayList<>();
+	}
+
+	/**
+	 *  Como o request da collection é adaptado a cada chamada:
+	 *  CATALOG troca o nome na URL por um food do catálogo, HOT troca o id pelo do SKU quente
+	 *  e NEW troca o nome no body por um nome único.
+	 * */
+	public enum Target {
+		NONE,
+		CATALOG,
+		HOT,
+		NEW
+	}
+}
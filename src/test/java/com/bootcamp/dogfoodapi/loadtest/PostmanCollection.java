@@ -0,0 +1,54 @@
+package com.bootcamp.dogfoodapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  Leitura dos requests da collection do Postman (formato v2.1), indexados pelo nome do item.
+ *  Da URL só fica o path: o host é trocado pelo da aplicação em teste.
+ * */
+public class PostmanCollection {
+
+	private final Map<String, PostmanRequest> requests;
+
+	private PostmanCollection(Map<String, PostmanRequest> requests) {
+		this.requests = requests;
+	}
+
+	public static PostmanCollection load(Path file) throws IOException {
+		Map<String, PostmanRequest> requests = new HashMap<>();
+		for (JsonNode item : new ObjectMapper().readTree(file.toFile()).path("item")) {
+			JsonNode request = item.path("request");
+			String path = request.path("url").path("raw").asText().replaceFirst("^https?://[^/]+", "");
+			String body = request.path("body").path("raw").asText(null);
+			requests.put(item.path("name").asText(), new PostmanRequest(request.path("method").asText(), path, body));
+		}
+		return new PostmanCollection(requests);
+	}
+
+	public PostmanRequest get(String name) {
+		PostmanRequest request = requests.get(name);
+		if (request == null) {
+			throw new IllegalArgumentException("Request " + name + " not found in the Postman collection");
+		}
+		return request;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static class PostmanRequest {
+
+		private final String method;
+
+		private final String path;
+
+		private final String body;
+	}
+}
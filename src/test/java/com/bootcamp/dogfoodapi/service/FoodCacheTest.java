@@ -0,0 +1,109 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.utils.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FoodCacheTest {
+
+	private MutableClock clock;
+
+	private FoodCache foodCache;
+
+	@BeforeEach
+	void setUp() {
+		clock = new MutableClock(Instant.parse("2020-06-01T10:00:00Z"));
+		foodCache = new FoodCache(2, 60, clock);
+	}
+
+	@Test
+	void whenFoodChangesDuringALoadThenTheStaleLoadIsNotCached() {
+		FoodDTO staleFoodDTO = FoodDTOBuilder.builder().quantity(10).build().toFoodDTO();
+		long stamp = foodCache.stamp();
+
+		foodCache.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, FoodDTOBuilder.builder().quantity(4).build().toFoodDTO(), 0, 6));
+		foodCache.put(staleFoodDTO, stamp);
+
+		assertThat(foodCache.get(staleFoodDTO.getName()), is(Optional.empty()));
+	}
+
+	@Test
+	void whenAnotherFoodChangesDuringALoadThenTheLoadIsCached() {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().id(1L).name("Loaded").build().toFoodDTO();
+		long stamp = foodCache.stamp();
+
+		foodCache.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, FoodDTOBuilder.builder().id(2L).name("Changed").build().toFoodDTO(), 0, 6));
+		foodCache.put(foodDTO, stamp);
+
+		assertThat(foodCache.get(foodDTO.getName()), is(Optional.of(foodDTO)));
+	}
+
+	@Test
+	void whenCachedFoodChangesThenTheEntryIsUpdated() {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(10).build().toFoodDTO();
+		FoodDTO changedFoodDTO = FoodDTOBuilder.builder().quantity(4).build().toFoodDTO();
+		foodCache.put(foodDTO, foodCache.stamp());
+
+		foodCache.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, changedFoodDTO, 0, 6));
+
+		assertThat(foodCache.get(foodDTO.getName()), is(Optional.of(changedFoodDTO)));
+	}
+
+	@Test
+	void whenTtlExpiresThenFoodIsLoadedAgain() {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		foodCache.put(foodDTO, foodCache.stamp());
+
+		clock.advance(Duration.ofSeconds(61));
+
+		assertThat(foodCache.get(foodDTO.getName()), is(Optional.empty()));
+	}
+
+	@Test
+	void whenCacheIsFullThenTheLeastAccessedFoodIsEvicted() {
+		FoodDTO hotFoodDTO = FoodDTOBuilder.builder().id(1L).name("Hot").build().toFoodDTO();
+		FoodDTO coldFoodDTO = FoodDTOBuilder.builder().id(2L).name("Cold").build().toFoodDTO();
+		FoodDTO newFoodDTO = FoodDTOBuilder.builder().id(3L).name("New").build().toFoodDTO();
+		foodCache.put(hotFoodDTO, foodCache.stamp());
+		foodCache.put(coldFoodDTO, foodCache.stamp());
+		for (int access = 0; access < 5; access++) {
+			foodCache.get("Hot");
+		}
+		foodCache.get("New");
+		foodCache.put(newFoodDTO, foodCache.stamp());
+		foodCache.put(newFoodDTO, foodCache.stamp());
+
+		assertThat(foodCache.size(), is(equalTo(2)));
+		assertThat(foodCache.get("Hot").isPresent(), is(true));
+		assertThat(foodCache.get("Cold").isPresent(), is(false));
+		assertThat(foodCache.hottest(1).get(0).getId(), is(equalTo(1L)));
+	}
+
+	@Test
+	void whenColdFoodIsOutsideTheFirstSampleThenItIsStillEvicted() {
+		for (long coldId = 1; coldId <= 16; coldId++) {
+			FoodCache largeCache = new FoodCache(16, 60, clock);
+			for (long id = 1; id <= 16; id++) {
+				FoodDTO foodDTO = FoodDTOBuilder.builder().id(id).name("Food " + id).build().toFoodDTO();
+				largeCache.warm(foodDTO, id == coldId ? 1 : 10, largeCache.stamp());
+			}
+
+			for (long id = 17; id <= 19; id++) {
+				largeCache.warm(FoodDTOBuilder.builder().id(id).name("Food " + id).build().toFoodDTO(), 5, largeCache.stamp());
+			}
+
+			assertThat("Food " + coldId, largeCache.get("Food " + coldId).isPresent(), is(false));
+		}
+	}
+}
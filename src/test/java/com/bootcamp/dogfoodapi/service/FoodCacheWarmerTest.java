@@ -0,0 +1,81 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FoodCacheWarmerTest {
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@TempDir
+	Path snapshotDirectory;
+
+	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
+
+	@Test
+	void whenSnapshotIsWrittenThenHottestFoodsAreRestoredInParallelChunks() throws IOException {
+		String snapshotFile = snapshotDirectory.resolve("food-cache.bin").toString();
+		FoodCache runningCache = new FoodCache(100, 60);
+		FoodCacheWarmer runningWarmer = new FoodCacheWarmer(foodRepository, runningCache, snapshotFile, 2, 2, 1);
+		FoodDTO hotFoodDTO = FoodDTOBuilder.builder().id(1L).name("Hot").build().toFoodDTO();
+		FoodDTO warmFoodDTO = FoodDTOBuilder.builder().id(2L).name("Warm").build().toFoodDTO();
+		FoodDTO coldFoodDTO = FoodDTOBuilder.builder().id(3L).name("Cold").build().toFoodDTO();
+		runningCache.put(hotFoodDTO, runningCache.stamp());
+		runningCache.put(warmFoodDTO, runningCache.stamp());
+		runningCache.put(coldFoodDTO, runningCache.stamp());
+		for (int access = 0; access < 5; access++) {
+			runningCache.get("Hot");
+			runningCache.get("Warm");
+		}
+		runningWarmer.restore();
+		runningWarmer.writeSnapshot();
+
+		FoodCache restartedCache = new FoodCache(100, 60);
+		FoodCacheWarmer restartedWarmer = new FoodCacheWarmer(foodRepository, restartedCache, snapshotFile, 2, 2, 1);
+		Map<Long, Integer> snapshot = restartedWarmer.readSnapshot();
+		when(foodRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+			Iterable<Long> ids = invocation.getArgument(0);
+			Long id = ids.iterator().next();
+			return List.of(foodMapper.toModel(id == 1L ? hotFoodDTO : warmFoodDTO));
+		});
+		assertThat(restartedWarmer.isWarm(), is(false));
+
+		restartedWarmer.restore();
+
+		assertThat(snapshot.keySet(), containsInAnyOrder(1L, 2L));
+		assertThat(restartedWarmer.isWarm(), is(true));
+		assertThat(restartedCache.size(), is(equalTo(2)));
+		assertThat(restartedCache.hottest(1).get(0).getFrequency(), is(greaterThanOrEqualTo(6)));
+		verify(foodRepository, times(2)).findAllById(anyIterable());
+	}
+
+	@Test
+	void whenThereIsNoSnapshotThenWarmupFinishesWithoutQueries() {
+		FoodCacheWarmer foodCacheWarmer = new FoodCacheWarmer(foodRepository, new FoodCache(100, 60), "", 10, 2, 10);
+
+		foodCacheWarmer.restore();
+
+		assertThat(foodCacheWarmer.isWarm(), is(true));
+		verifyNoInteractions(foodRepository);
+	}
+}
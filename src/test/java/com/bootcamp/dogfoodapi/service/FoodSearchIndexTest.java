@@ -0,0 +1,115 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FoodSearchIndexTest {
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	private FoodSearchIndex foodSearchIndex;
+
+	@BeforeEach
+	void setUp() {
+		foodSearchIndex = new FoodSearchIndex(foodRepository, 128, 10000, 1000);
+		foodSearchIndex.index(FoodDTOBuilder.builder().id(1L).name("Magnus Premium").brand("Mars").build().toFoodDTO());
+		foodSearchIndex.index(FoodDTOBuilder.builder().id(2L).name("Magnus Petit").brand("Mars").build().toFoodDTO());
+		foodSearchIndex.index(FoodDTOBuilder.builder().id(3L).name("Golden Fórmula").brand("Premier Pet").build().toFoodDTO());
+	}
+
+	@Test
+	void whenPrefixIsGivenThenFoodsWithMatchingTokensAreReturned() {
+		assertThat(foodSearchIndex.search("magn", 10), containsInAnyOrder(1L, 2L));
+	}
+
+	@Test
+	void whenNameAndBrandMatchThenNameMatchesAreRankedFirst() {
+		assertThat(foodSearchIndex.search("pet", 10), contains(2L, 3L));
+	}
+
+	@Test
+	void whenQueryHasOneTypoThenFuzzyMatchesAreReturned() {
+		assertThat(foodSearchIndex.search("goldem", 10), contains(3L));
+		assertThat(foodSearchIndex.search("primium magnus", 10), contains(1L, 2L));
+	}
+
+	@Test
+	void whenQueryHasAccentsOrCaseThenItIsNormalized() {
+		assertThat(foodSearchIndex.search("FORMULA", 10), contains(3L));
+	}
+
+	@Test
+	void whenLimitIsGivenThenOnlyTopResultsAreReturned() {
+		assertThat(foodSearchIndex.search("mars", 1), hasSize(1));
+	}
+
+	@Test
+	void whenTermMatchesTooManyFoodsThenOnlyTheCappedPostingsAreScored() {
+		FoodSearchIndex cappedIndex = new FoodSearchIndex(foodRepository, 128, 2, 1000);
+		cappedIndex.index(FoodDTOBuilder.builder().id(1L).name("Mars").brand("Mars").build().toFoodDTO());
+		cappedIndex.index(FoodDTOBuilder.builder().id(2L).name("Marshmallow").brand("Nestle").build().toFoodDTO());
+		cappedIndex.index(FoodDTOBuilder.builder().id(3L).name("Marsala").brand("Purina").build().toFoodDTO());
+
+		assertThat(cappedIndex.search("mars", 10), hasSize(2));
+		assertThat(cappedIndex.search("mars", 10), hasItem(1L));
+	}
+
+	@Test
+	void whenTextHasNonAsciiLettersThenTheyAreKeptInsideTokens() {
+		assertThat(FoodSearchIndex.tokenize("Ração Größe Корм"), contains("racao", "große", "корм"));
+	}
+
+	@Test
+	void whenFoodIsDeletedThenItIsRemovedFromTheIndex() {
+		FoodDTO deletedFoodDTO = FoodDTOBuilder.builder().id(2L).name("Magnus Petit").brand("Mars").build().toFoodDTO();
+
+		foodSearchIndex.onFoodEvent(new FoodEvent(FoodEventType.DELETED, deletedFoodDTO));
+
+		assertThat(foodSearchIndex.search("petit", 10), is(empty()));
+		assertThat(foodSearchIndex.search("magnus", 10), contains(1L));
+	}
+
+	@Test
+	void whenFoodIsDeletedDuringRebuildThenTheRebuildDoesNotBringItBack() throws InterruptedException {
+		FoodSearchIndex rebuiltIndex = new FoodSearchIndex(foodRepository, 128, 10000, 1000);
+		FoodDTO deletedFoodDTO = FoodDTOBuilder.builder().id(4L).name("Biriba").brand("Nestle").build().toFoodDTO();
+		Thread deletion = new Thread(() -> rebuiltIndex.onFoodEvent(new FoodEvent(FoodEventType.DELETED, deletedFoodDTO)));
+		when(foodRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+			deletion.start();
+			deletion.join(200);
+			return new PageImpl<>(Collections.singletonList(FoodMapper.INSTANCE.toModel(deletedFoodDTO)));
+		});
+
+		rebuiltIndex.rebuild();
+		deletion.join();
+
+		assertThat(rebuiltIndex.search("biriba", 10), is(empty()));
+	}
+
+	@Test
+	void whenWordsDifferByOneEditThenTheyAreWithinOneEdit() {
+		assertThat(FoodSearchIndex.withinOneEdit("premium", "premiun"), is(true));
+		assertThat(FoodSearchIndex.withinOneEdit("premium", "premum"), is(true));
+		assertThat(FoodSearchIndex.withinOneEdit("premium", "premier"), is(false));
+	}
+}
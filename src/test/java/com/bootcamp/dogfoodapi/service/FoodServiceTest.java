@@ -2,21 +2,35 @@ package com.bootcamp.dogfoodapi.service;
 
 import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
 import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
 import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
 import com.bootcamp.dogfoodapi.exception.FoodAlreadyRegisteredException;
 import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
 import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.InvalidFoodFilterException;
 import com.bootcamp.dogfoodapi.mapper.FoodMapper;
 import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -31,17 +45,44 @@ public class FoodServiceTest {
 	@Mock
 	private FoodRepository foodRepository;
 
+	@Mock
+	private StockHistoryBucketRepository stockHistoryBucketRepository;
+
+	@Mock
+	private StockCommitCoalescer stockCommitCoalescer;
+
+	@Mock
+	private FoodSearchIndex foodSearchIndex;
+
+	@Mock
+	private FoodCache foodCache;
+
+	@Mock
+	private StockHolds stockHolds;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Mock
+	private TransactionOperations transactionOperations;
+
 	private FoodMapper foodMapper = FoodMapper.INSTANCE;
 
 	@InjectMocks
 	private FoodService foodService;
 
+	@BeforeEach
+	void setUp() {
+		lenient().when(transactionOperations.execute(ArgumentMatchers.any()))
+				.thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
 	@Test
 	void whenFoodInformedThenItShouldBeCreated() throws FoodAlreadyRegisteredException {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedSavedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findByName(expectedFoodDTO.getName())).thenReturn(Optional.empty());
+		when(foodRepository.findIncludingDeletedByName(expectedFoodDTO.getName())).thenReturn(Optional.empty());
 		when(foodRepository.save(expectedSavedFood)).thenReturn(expectedSavedFood);
 
 		FoodDTO createdFoodDTO = foodService.createFood(expectedFoodDTO);
@@ -56,7 +97,7 @@ public class FoodServiceTest {
 		FoodDTO exipectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food duplicateFood = foodMapper.toModel(exipectedFoodDTO);
 
-		when(foodRepository.findByName(exipectedFoodDTO.getName())).thenReturn(Optional.of(duplicateFood));
+		when(foodRepository.findIncludingDeletedByName(exipectedFoodDTO.getName())).thenReturn(Optional.of(duplicateFood));
 
 		assertThrows(FoodAlreadyRegisteredException.class, () -> foodService.createFood(exipectedFoodDTO));
 	}
@@ -72,6 +113,18 @@ public class FoodServiceTest {
 
 		assertThat(foundFoodDTO, is(equalTo(expectedFoundFoodDTO)));
 	}
+	@Test
+	void whenCachedFoodNameIsGivenThenRepositoryIsNotQueried() throws FoodNotFoundException {
+		FoodDTO expectedFoundFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+
+		when(foodCache.get(expectedFoundFoodDTO.getName())).thenReturn(Optional.of(expectedFoundFoodDTO));
+
+		FoodDTO foundFoodDTO = foodService.findByName(expectedFoundFoodDTO.getName());
+
+		assertThat(foundFoodDTO, is(equalTo(expectedFoundFoodDTO)));
+		verify(foodRepository, never()).findByName(expectedFoundFoodDTO.getName());
+	}
+
 	@Test
 	void whenNotRegisteredFoodNameIsGivenThenThrowAnException() {
 		FoodDTO expectedFoundFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
@@ -108,12 +161,72 @@ public class FoodServiceTest {
 		FoodDTO expectedDeletedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedDeletedFood = foodMapper.toModel(expectedDeletedFoodDTO);
 
-		when(foodRepository.findById(expectedDeletedFoodDTO.getId())).thenReturn(Optional.of(expectedDeletedFood));
-		doNothing().when(foodRepository).deleteById(expectedDeletedFoodDTO.getId());
+		when(foodRepository.findForUpdateById(expectedDeletedFoodDTO.getId())).thenReturn(Optional.of(expectedDeletedFood));
 
 		foodService.deleteById(expectedDeletedFoodDTO.getId());
 
-		verify(foodRepository, times(1)).findById(expectedDeletedFoodDTO.getId());
+		verify(foodRepository, times(1)).findForUpdateById(expectedDeletedFoodDTO.getId());
+		verify(foodRepository, times(1)).save(expectedDeletedFood);
+		verify(foodRepository, never()).deleteById(expectedDeletedFoodDTO.getId());
+		assertThat(expectedDeletedFood.isDeleted(), is(true));
+		assertThat(expectedDeletedFood.getDeletedAt(), is(notNullValue()));
+	}
+
+	@Test
+	void whenFoodsAreDeletedByFilterThenTheyAreMarkedAsDeletedInOneUpdate() throws InvalidFoodFilterException {
+		Food firstFood = foodMapper.toModel(FoodDTOBuilder.builder().id(1L).name("Magnus Petit").build().toFoodDTO());
+		Food secondFood = foodMapper.toModel(FoodDTOBuilder.builder().id(2L).name("Magnus Adult").build().toFoodDTO());
+
+		when(foodRepository.findForUpdateByFilter(ArgumentMatchers.eq("Mars"), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+				.thenReturn(List.of(firstFood, secondFood));
+
+		int deleted = foodService.deleteByFilter("Mars", null);
+
+		assertThat(deleted, is(equalTo(2)));
+		verify(foodRepository, times(1)).markAsDeleted(ArgumentMatchers.eq(List.of(1L, 2L)), ArgumentMatchers.any());
+		verify(applicationEventPublisher, times(2)).publishEvent(argThat((Object event) -> event instanceof FoodEvent
+				&& ((FoodEvent) event).getType() == FoodEventType.DELETED));
+	}
+
+	@Test
+	void whenMoreFoodsThanAChunkMatchTheFilterThenTheyAreDeletedInChunks() throws InvalidFoodFilterException {
+		List<Food> fullChunk = LongStream.rangeClosed(1, 50)
+				.mapToObj(id -> foodMapper.toModel(FoodDTOBuilder.builder().id(id).name("Magnus " + id).build().toFoodDTO()))
+				.collect(Collectors.toList());
+		Food lastFood = foodMapper.toModel(FoodDTOBuilder.builder().id(51L).name("Magnus 51").build().toFoodDTO());
+
+		when(foodRepository.findForUpdateByFilter(ArgumentMatchers.eq("Mars"), ArgumentMatchers.isNull(), ArgumentMatchers.any()))
+				.thenReturn(fullChunk, List.of(lastFood));
+
+		int deleted = foodService.deleteByFilter("Mars", null);
+
+		assertThat(deleted, is(equalTo(51)));
+		verify(transactionOperations, times(2)).execute(ArgumentMatchers.any());
+		verify(foodRepository, times(2)).markAsDeleted(ArgumentMatchers.anyList(), ArgumentMatchers.any());
+	}
+
+	@Test
+	void whenNoFilterIsGivenThenFoodsAreNotDeleted() {
+		assertThrows(InvalidFoodFilterException.class, () -> foodService.deleteByFilter(null, null));
+
+		verifyNoInteractions(foodRepository);
+	}
+
+	@Test
+	void whenDeletedFoodStillHoldsTheNameThenItIsPurgedBeforeCreation() throws FoodAlreadyRegisteredException {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedSavedFood = foodMapper.toModel(expectedFoodDTO);
+		Food deletedFood = foodMapper.toModel(FoodDTOBuilder.builder().id(7L).build().toFoodDTO());
+		deletedFood.setDeleted(true);
+
+		when(foodRepository.findIncludingDeletedByName(expectedFoodDTO.getName())).thenReturn(Optional.of(deletedFood));
+		when(foodRepository.save(expectedSavedFood)).thenReturn(expectedSavedFood);
+
+		FoodDTO createdFoodDTO = foodService.createFood(expectedFoodDTO);
+
+		assertThat(createdFoodDTO.getName(), is(equalTo(expectedFoodDTO.getName())));
+		verify(stockHistoryBucketRepository, times(1)).deleteByFoodIdIn(List.of(7L));
+		verify(foodRepository, times(1)).purgeDeleted(7L);
 	}
 
 	@Test
@@ -121,7 +234,7 @@ public class FoodServiceTest {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
 		when(foodRepository.save(expectedFood)).thenReturn(expectedFood);
 
 		int quantityToIncrement = 10;
@@ -138,7 +251,7 @@ public class FoodServiceTest {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
 
 		int quantityToIncrement = 80;
 		assertThrows(FoodStockExceededException.class, () -> foodService.increment(expectedFoodDTO.getId(), quantityToIncrement));
@@ -149,7 +262,7 @@ public class FoodServiceTest {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
 
 		int quantityToIncrement = 45;
 		assertThrows(FoodStockExceededException.class, () -> foodService.increment(expectedFoodDTO.getId(),
@@ -160,7 +273,7 @@ public class FoodServiceTest {
 	void whenIncrementIsCalledWithInvalidIdThenThrowException() {
 		int quantityToIncrement = 10;
 
-		when(foodRepository.findById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
+		when(foodRepository.findForUpdateById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
 
 		assertThrows(FoodNotFoundException.class, () -> foodService.increment(INVALID_FOOD_ID, quantityToIncrement));
 	}
@@ -171,7 +284,7 @@ public class FoodServiceTest {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
 		when(foodRepository.save(expectedFood)).thenReturn(expectedFood);
 
 		int quantityToDecrement = 5;
@@ -187,7 +300,7 @@ public class FoodServiceTest {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
 		when(foodRepository.save(expectedFood)).thenReturn(expectedFood);
 
 		int quantityToDecrement = 10;
@@ -203,20 +316,131 @@ public class FoodServiceTest {
 		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
 		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
 
-		when(foodRepository.findById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
 
 		int quantityToDecrement = 80;
 		assertThrows(FoodStockExceededException.class, () -> foodService.decrement(expectedFoodDTO.getId(),
 				quantityToDecrement));
 	}
 
+	@Test
+	void whenDecrementWouldTakeStockAllocatedToOtherLocationsThenThrowException() {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+		expectedFood.setAllocatedQuantity(8);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+
+		assertThrows(FoodStockExceededException.class, () -> foodService.decrement(expectedFoodDTO.getId(), 3));
+	}
+
 	@Test
 	void whenDecrementIsCalledWithInvalidIdThenThrowException() {
 		int quantityToDecrement = 10;
 
-		when(foodRepository.findById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
+		when(foodRepository.findForUpdateById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
 
 		assertThrows(FoodNotFoundException.class, () -> foodService.decrement(INVALID_FOOD_ID, quantityToDecrement));
 	}
-}
 
+	@Test
+	void whenTryDecrementExceedsStockThenStockExceededResultIsReturned() {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+
+		StockMutationResult result = foodService.tryDecrement(expectedFoodDTO.getId(), 80);
+
+		assertThat(result.getStatus(), is(StockMutationStatus.STOCK_EXCEEDED));
+		verify(foodRepository, never()).save(expectedFood);
+	}
+
+	@Test
+	void whenTryIncrementIsCalledWithInvalidIdThenNotFoundResultIsReturned() {
+		when(foodRepository.findForUpdateById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
+
+		StockMutationResult result = foodService.tryIncrement(INVALID_FOOD_ID, 10);
+
+		assertThat(result.getStatus(), is(StockMutationStatus.NOT_FOUND));
+	}
+
+	@Test
+	void whenDecrementWouldTakeReservedUnitsThenThrowException() {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(stockHolds.heldOf(expectedFoodDTO.getId())).thenReturn(8);
+
+		assertThrows(FoodStockExceededException.class, () -> foodService.decrement(expectedFoodDTO.getId(), 5));
+	}
+
+	@Test
+	void whenReservedUnitsAreCommittedThenTheyCanBeDecremented() throws FoodNotFoundException, FoodStockExceededException {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(foodRepository.save(expectedFood)).thenReturn(expectedFood);
+		when(stockHolds.heldOf(expectedFoodDTO.getId())).thenReturn(8);
+
+		FoodDTO decrementedFoodDTO = foodService.decrementReserved(expectedFoodDTO.getId(), 8);
+
+		assertThat(decrementedFoodDTO.getQuantity(), is(equalTo(expectedFoodDTO.getQuantity() - 8)));
+	}
+
+	@Test
+	void whenFoodIsNotFoundThenExceptionHasNoStackTraceAndSameMessage() {
+		when(foodRepository.findForUpdateById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
+
+		FoodNotFoundException exception = assertThrows(FoodNotFoundException.class, () -> foodService.decrement(INVALID_FOOD_ID, 1));
+
+		assertThat(exception.getStackTrace().length, is(equalTo(0)));
+		assertThat(exception.getMessage(), is(equalTo("Food with id " + INVALID_FOOD_ID + " not found in the system.")));
+	}
+
+	@Test
+	void whenCoalescingIsEnabledThenDecrementIsGroupCommitted() throws FoodNotFoundException, FoodStockExceededException {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		int quantityToDecrement = 5;
+
+		when(stockCommitCoalescer.isEnabled()).thenReturn(true);
+		when(stockCommitCoalescer.apply(expectedFoodDTO.getId(), -quantityToDecrement))
+				.thenReturn(new StockMutationResult(StockMutationStatus.APPLIED, expectedFoodDTO));
+
+		FoodDTO decrementedFoodDTO = foodService.decrement(expectedFoodDTO.getId(), quantityToDecrement);
+
+		assertThat(decrementedFoodDTO, is(equalTo(expectedFoodDTO)));
+		verify(foodRepository, never()).findForUpdateById(expectedFoodDTO.getId());
+	}
+
+	@Test
+	void whenSearchIsCalledThenFoodsAreReturnedInRankOrder() {
+		FoodDTO firstFoodDTO = FoodDTOBuilder.builder().id(2L).name("Magnus Petit").build().toFoodDTO();
+		FoodDTO secondFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		List<Long> rankedIds = Arrays.asList(firstFoodDTO.getId(), secondFoodDTO.getId());
+
+		when(foodSearchIndex.search("magnus pet", 10)).thenReturn(rankedIds);
+		when(foodRepository.findAllById(rankedIds)).thenReturn(Arrays.asList(
+				foodMapper.toModel(secondFoodDTO), foodMapper.toModel(firstFoodDTO)));
+
+		List<FoodDTO> foundFoodsDTO = foodService.search("magnus pet", 10);
+
+		assertThat(foundFoodsDTO, contains(firstFoodDTO, secondFoodDTO));
+	}
+
+	@Test
+	void whenFoodIsCreatedThenACreatedEventIsPublished() throws FoodAlreadyRegisteredException {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedSavedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findIncludingDeletedByName(expectedFoodDTO.getName())).thenReturn(Optional.empty());
+		when(foodRepository.save(expectedSavedFood)).thenReturn(expectedSavedFood);
+
+		foodService.createFood(expectedFoodDTO);
+
+		verify(applicationEventPublisher, times(1)).publishEvent(argThat((Object event) -> event instanceof FoodEvent
+				&& ((FoodEvent) event).getType() == FoodEventType.CREATED));
+	}
+}
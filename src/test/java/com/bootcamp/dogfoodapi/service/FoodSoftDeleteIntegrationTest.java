@@ -0,0 +1,126 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.entity.StockHistoryBucket;
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.OutboxEventRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+		"dogfood.purge.retention-seconds=0",
+		"dogfood.purge.interval-millis=3600000",
+		"dogfood.outbox.relay-millis=3600000",
+		"spring.datasource.url=jdbc:h2:mem:soft-delete-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class FoodSoftDeleteIntegrationTest {
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodTombstonePurger foodTombstonePurger;
+
+	@Autowired
+	private StockHistoryBucketRepository stockHistoryBucketRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void whenFoodIsDeletedThenItIsHiddenUntilPurgedAndItsNameCanBeReused() throws Exception {
+		FoodDTO createdFoodDTO = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Soft Deleted").build().toFoodDTO());
+		foodService.findByName("Soft Deleted");
+
+		foodService.deleteById(createdFoodDTO.getId());
+
+		assertThrows(FoodNotFoundException.class, () -> foodService.findByName("Soft Deleted"));
+		assertThrows(FoodNotFoundException.class, () -> foodService.deleteById(createdFoodDTO.getId()));
+		assertThat(foodRepository.findById(createdFoodDTO.getId()).isPresent(), is(false));
+		assertThat(jdbcTemplate.queryForObject("SELECT DELETED FROM FOOD WHERE ID = ?", Boolean.class, createdFoodDTO.getId()), is(true));
+
+		FoodDTO recreatedFoodDTO = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Soft Deleted").build().toFoodDTO());
+
+		assertThat(recreatedFoodDTO.getId(), is(not(equalTo(createdFoodDTO.getId()))));
+		assertThat(foodService.findByName("Soft Deleted"), is(equalTo(recreatedFoodDTO)));
+	}
+
+	@Test
+	void whenFoodsAreDeletedByFilterThenTheyArePurgedInBatches() throws Exception {
+		for (int index = 0; index < 3; index++) {
+			foodService.createFood(FoodDTOBuilder.builder().id(null).name("Bulk " + index).brand("Bulk Brand").type(FoodType.STANDARD)
+					.build().toFoodDTO());
+		}
+		foodService.createFood(FoodDTOBuilder.builder().id(null).name("Bulk Kept").brand("Bulk Brand").type(FoodType.PREMIUM)
+				.build().toFoodDTO());
+
+		int deleted = foodService.deleteByFilter("Bulk Brand", FoodType.STANDARD);
+		outboxRelay.relay();
+		Thread.sleep(5);
+		int purged = foodTombstonePurger.purge();
+
+		assertThat(deleted, is(equalTo(3)));
+		assertThat(purged, is(greaterThanOrEqualTo(3)));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FOOD WHERE BRAND = 'Bulk Brand'", Integer.class), is(equalTo(1)));
+		assertThat(foodService.findByName("Bulk Kept").getType(), is(equalTo(FoodType.PREMIUM)));
+	}
+
+	@Test
+	void whenTombstoneIsPurgedThenItsHistoryGoesWithItAndUndeliveredEventsHoldIt() throws Exception {
+		FoodDTO foodDTO = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Purged With History").build().toFoodDTO());
+		stockHistoryBucketRepository.save(new StockHistoryBucket(null, foodDTO.getId(), HistoryResolution.HOUR, Instant.EPOCH, 0, 1, 9));
+		foodService.deleteById(foodDTO.getId());
+		Thread.sleep(5);
+
+		foodTombstonePurger.purge();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FOOD WHERE ID = ?", Integer.class, foodDTO.getId()), is(equalTo(1)));
+
+		outboxRelay.relay();
+		foodTombstonePurger.purge();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FOOD WHERE ID = ?", Integer.class, foodDTO.getId()), is(equalTo(0)));
+		assertThat(historyOf(foodDTO.getId()), is(equalTo(0)));
+	}
+
+	@Test
+	void whenNameIsReusedThenTheTombstoneHistoryIsPurgedAndItsEventsAreStillDelivered() throws Exception {
+		FoodDTO foodDTO = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Reused With History").build().toFoodDTO());
+		stockHistoryBucketRepository.save(new StockHistoryBucket(null, foodDTO.getId(), HistoryResolution.HOUR, Instant.EPOCH, 0, 1, 9));
+		foodService.deleteById(foodDTO.getId());
+
+		foodService.createFood(FoodDTOBuilder.builder().id(null).name("Reused With History").build().toFoodDTO());
+
+		assertThat(historyOf(foodDTO.getId()), is(equalTo(0)));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM OUTBOX_EVENT WHERE FOOD_ID = ?", Integer.class, foodDTO.getId()),
+				is(greaterThan(0)));
+		outboxRelay.relay();
+		assertThat(outboxEventRepository.count(), is(equalTo(0L)));
+	}
+
+	private int historyOf(Long foodId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM STOCK_HISTORY_BUCKET WHERE FOOD_ID = ?", Integer.class, foodId);
+	}
+}
@@ -0,0 +1,88 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockTransferDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.entity.FoodStock;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.FoodStockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:food-stock-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class FoodStockIntegrationTest {
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private FoodStockService foodStockService;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private FoodStockRepository foodStockRepository;
+
+	@Test
+	void whenLocationsAreIncrementedConcurrentlyThenAllocatedQuantityMatchesTheLocationRows() throws Exception {
+		FoodDTO foodDTO = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Concurrent Stock").quantity(0).build().toFoodDTO());
+		List<String> locations = List.of("north", "north", "south", "default");
+		int incrementsPerLocation = 10;
+		ExecutorService executor = Executors.newFixedThreadPool(locations.size());
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> calls = new ArrayList<>();
+		for (String location : locations) {
+			calls.add(executor.submit(() -> {
+				start.await();
+				for (int increment = 0; increment < incrementsPerLocation; increment++) {
+					foodStockService.increment(foodDTO.getId(), location, 1);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> call : calls) {
+			call.get();
+		}
+		executor.shutdown();
+
+		Food food = foodRepository.findById(foodDTO.getId()).get();
+		int locationRowsTotal = foodStockRepository.findByFoodIdOrderByLocation(foodDTO.getId()).stream()
+				.mapToInt(FoodStock::getQuantity)
+				.sum();
+		assertThat(food.getQuantity(), is(equalTo(locations.size() * incrementsPerLocation)));
+		assertThat(food.getAllocatedQuantity(), is(equalTo(locationRowsTotal)));
+		assertThat(locationRowsTotal, is(equalTo(3 * incrementsPerLocation)));
+	}
+
+	@Test
+	void whenRebalanceIsCalledThenOnlyFoodsBelowMinimumSomewhereGetTransfers() throws Exception {
+		FoodDTO balancedFood = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Balanced Stock").quantity(20).build().toFoodDTO());
+		FoodDTO unbalancedFood = foodService.createFood(FoodDTOBuilder.builder().id(null).name("Unbalanced Stock").quantity(20).build().toFoodDTO());
+		foodStockService.increment(balancedFood.getId(), "north", 8);
+		foodStockService.increment(unbalancedFood.getId(), "north", 2);
+		foodStockService.increment(unbalancedFood.getId(), "south", 9);
+
+		List<StockTransferDTO> transfers = foodStockService.rebalance(8);
+
+		assertThat(transfers, contains(
+				new StockTransferDTO(unbalancedFood.getId(), "default", "north", 6)));
+	}
+}
@@ -0,0 +1,123 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.FoodStockDTO;
+import com.bootcamp.dogfoodapi.dto.LocationStockDTO;
+import com.bootcamp.dogfoodapi.dto.StockTransferDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.entity.FoodStock;
+import com.bootcamp.dogfoodapi.enums.FoodType;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.InvalidLocationException;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.FoodStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FoodStockServiceTest {
+
+	private static final long FOOD_ID = 1L;
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private FoodStockRepository foodStockRepository;
+
+	@Mock
+	private FoodService foodService;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private FoodStockService foodStockService;
+
+	@BeforeEach
+	void setUp() {
+		foodStockService = new FoodStockService(foodRepository, foodStockRepository, foodService, applicationEventPublisher, "default");
+	}
+
+	@Test
+	void whenIncrementIsCalledForALocationThenLocationAndFoodTotalsAreUpdated() throws Exception {
+		Food food = food(10, 4);
+		when(foodRepository.findForUpdateById(FOOD_ID)).thenReturn(Optional.of(food));
+		when(foodStockRepository.findByFoodIdAndLocation(FOOD_ID, "north")).thenReturn(Optional.of(new FoodStock(7L, FOOD_ID, "north", 4)));
+		when(foodRepository.save(food)).thenReturn(food);
+		when(foodStockRepository.findByFoodIdOrderByLocation(FOOD_ID)).thenReturn(List.of(new FoodStock(7L, FOOD_ID, "north", 9)));
+
+		FoodStockDTO foodStockDTO = foodStockService.increment(FOOD_ID, " North ", 5);
+
+		assertThat(food.getQuantity(), is(equalTo(15)));
+		assertThat(food.getAllocatedQuantity(), is(equalTo(9)));
+		assertThat(foodStockDTO.getLocations(), contains(new LocationStockDTO("default", 6), new LocationStockDTO("north", 9)));
+		verify(applicationEventPublisher).publishEvent(any(FoodEvent.class));
+	}
+
+	@Test
+	void whenDecrementIsGreaterThanLocationStockThenThrowException() {
+		when(foodRepository.findForUpdateById(FOOD_ID)).thenReturn(Optional.of(food(10, 4)));
+		when(foodStockRepository.findByFoodIdAndLocation(FOOD_ID, "north")).thenReturn(Optional.of(new FoodStock(7L, FOOD_ID, "north", 4)));
+
+		assertThrows(FoodStockExceededException.class, () -> foodStockService.decrement(FOOD_ID, "north", 5));
+		verify(foodRepository, never()).save(any(Food.class));
+	}
+
+	@Test
+	void whenDefaultLocationIsInformedThenFoodServiceIncrementIsUsed() throws Exception {
+		when(foodRepository.findById(FOOD_ID)).thenReturn(Optional.of(food(15, 0)));
+
+		foodStockService.increment(FOOD_ID, "default", 5);
+
+		verify(foodService).increment(FOOD_ID, 5);
+		verify(foodStockRepository, never()).findByFoodIdAndLocation(any(), any());
+	}
+
+	@Test
+	void whenLocationIsBlankThenThrowException() {
+		assertThrows(InvalidLocationException.class, () -> foodStockService.increment(FOOD_ID, " ", 5));
+	}
+
+	@Test
+	void whenRebalanceIsCalledThenLocationsWithSurplusCoverLocationsBelowMinimum() {
+		when(foodRepository.findDefaultStockBelow(5)).thenReturn(List.of());
+		when(foodStockRepository.findByQuantityLessThanOrderByFoodId(5)).thenReturn(List.of(new FoodStock(7L, FOOD_ID, "north", 2)));
+		when(foodRepository.findDefaultStockAbove(5, List.of(FOOD_ID))).thenReturn(List.of(food(30, 12)));
+		when(foodStockRepository.findByFoodIdInAndQuantityGreaterThan(List.of(FOOD_ID), 5)).thenReturn(List.of(new FoodStock(8L, FOOD_ID, "south", 10)));
+
+		List<StockTransferDTO> transfers = foodStockService.rebalance(5);
+
+		assertThat(transfers, contains(
+				new StockTransferDTO(FOOD_ID, "default", "north", 3)));
+	}
+
+	@Test
+	void whenNoLocationIsBelowMinimumThenRebalanceDoesNotReadTheSurpluses() {
+		when(foodRepository.findDefaultStockBelow(5)).thenReturn(List.of());
+		when(foodStockRepository.findByQuantityLessThanOrderByFoodId(5)).thenReturn(List.of());
+
+		List<StockTransferDTO> transfers = foodStockService.rebalance(5);
+
+		assertThat(transfers, is(empty()));
+		verify(foodRepository, never()).findDefaultStockAbove(anyInt(), anyCollection());
+		verify(foodStockRepository, never()).findByFoodIdInAndQuantityGreaterThan(anyCollection(), anyInt());
+	}
+
+	private static Food food(int quantity, int allocatedQuantity) {
+		return new Food(FOOD_ID, "Magnus PREMIUM", "Mars", 50, quantity, FoodType.PREMIUM, allocatedQuantity, false, null);
+	}
+}
@@ -0,0 +1,89 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
+import com.bootcamp.dogfoodapi.utils.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FoodTombstonePurgerTest {
+
+	private static final Instant NOW = Instant.parse("2020-06-01T10:00:00Z");
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private StockHistoryBucketRepository stockHistoryBucketRepository;
+
+	private FoodTombstonePurger foodTombstonePurger;
+
+	@BeforeEach
+	void setUp() {
+		foodTombstonePurger = new FoodTombstonePurger(foodRepository, stockHistoryBucketRepository, TransactionOperations.withoutTransaction(),
+				60, 10, 3, 0, new MutableClock(NOW));
+	}
+
+	@Test
+	void whenABatchIsNotFullThenThePurgeStops() {
+		when(foodRepository.findPurgeableIds(NOW.minusSeconds(60), 10)).thenReturn(ids(1, 10), ids(11, 4));
+		when(foodRepository.purgeDeleted(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+		int purged = foodTombstonePurger.purge();
+
+		assertThat(purged, is(equalTo(14)));
+		verify(foodRepository, times(2)).findPurgeableIds(NOW.minusSeconds(60), 10);
+	}
+
+	@Test
+	void whenThereAreManyTombstonesThenOnlyMaxBatchesArePurgedPerRun() {
+		when(foodRepository.findPurgeableIds(NOW.minusSeconds(60), 10)).thenReturn(ids(1, 10), ids(11, 10), ids(21, 10));
+		when(foodRepository.purgeDeleted(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+		int purged = foodTombstonePurger.purge();
+
+		assertThat(purged, is(equalTo(30)));
+		verify(foodRepository, times(3)).findPurgeableIds(NOW.minusSeconds(60), 10);
+	}
+
+	@Test
+	void whenTombstonesArePurgedThenTheirHistoryIsRemovedWithThem() {
+		when(foodRepository.findPurgeableIds(NOW.minusSeconds(60), 10)).thenReturn(ids(1, 2));
+		when(foodRepository.purgeDeleted(ids(1, 2))).thenReturn(2);
+
+		foodTombstonePurger.purge();
+
+		InOrder inOrder = inOrder(stockHistoryBucketRepository, foodRepository);
+		inOrder.verify(stockHistoryBucketRepository).deleteByFoodIdIn(ids(1, 2));
+		inOrder.verify(foodRepository).purgeDeleted(ids(1, 2));
+	}
+
+	@Test
+	void whenNoTombstoneIsPurgeableThenNothingIsDeleted() {
+		when(foodRepository.findPurgeableIds(NOW.minusSeconds(60), 10)).thenReturn(List.of());
+
+		assertThat(foodTombstonePurger.purge(), is(equalTo(0)));
+		verifyNoInteractions(stockHistoryBucketRepository);
+		verify(foodRepository, never()).purgeDeleted(anyList());
+	}
+
+	private static List<Long> ids(long first, int count) {
+		return LongStream.range(first, first + count).boxed().collect(Collectors.toList());
+	}
+}
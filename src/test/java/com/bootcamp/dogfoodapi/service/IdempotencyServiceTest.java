@@ -0,0 +1,139 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.QuantityDTO;
+import com.bootcamp.dogfoodapi.exception.IdempotencyKeyReusedException;
+import com.bootcamp.dogfoodapi.exception.IdempotentRequestInProgressException;
+import com.bootcamp.dogfoodapi.utils.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyServiceTest {
+
+	private static final String IDEMPOTENCY_KEY = "3f0b8a52-retry";
+	private static final String SCOPE = "increment:1";
+	private static final QuantityDTO REQUEST = QuantityDTO.builder().quantity(5).build();
+
+	private final Clock clock = Clock.fixed(Instant.parse("2021-03-30T10:00:00Z"), ZoneOffset.UTC);
+
+	@Test
+	void whenStoredKeyIsRepeatedThenCachedResponseIsReturned() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, "", clock);
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+
+		assertThat(idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST), is(Optional.empty()));
+		idempotencyService.store(IDEMPOTENCY_KEY, SCOPE, REQUEST, expectedFoodDTO);
+		idempotencyService.unlock(IDEMPOTENCY_KEY, SCOPE);
+
+		assertThat(idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST), is(Optional.of(expectedFoodDTO)));
+		assertThat(idempotencyService.findOrLock(IDEMPOTENCY_KEY, "decrement:1", REQUEST), is(Optional.empty()));
+	}
+
+	@Test
+	void whenKeyIsStillInProgressThenAnExceptionShouldBeThrown() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, "", clock);
+
+		idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST);
+
+		assertThrows(IdempotentRequestInProgressException.class, () -> idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST));
+	}
+
+	@Test
+	void whenOperationFailsThenKeyCanBeRetried() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, "", clock);
+
+		idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST);
+		idempotencyService.unlock(IDEMPOTENCY_KEY, SCOPE);
+
+		assertThat(idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST), is(Optional.empty()));
+	}
+
+	@Test
+	void whenTtlExpiresThenOperationIsExecutedAgain() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		MutableClock mutableClock = new MutableClock(clock.instant());
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, "", mutableClock);
+		idempotencyService.store(IDEMPOTENCY_KEY, SCOPE, REQUEST, FoodDTOBuilder.builder().build().toFoodDTO());
+
+		mutableClock.advance(Duration.ofSeconds(61));
+
+		assertThat(idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST), is(Optional.empty()));
+	}
+
+	@Test
+	void whenKeyIsReusedWithAnotherRequestThenAnExceptionShouldBeThrown() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, "", clock);
+		idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST);
+		idempotencyService.store(IDEMPOTENCY_KEY, SCOPE, REQUEST, FoodDTOBuilder.builder().build().toFoodDTO());
+
+		QuantityDTO otherRequest = QuantityDTO.builder().quantity(7).build();
+
+		assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, otherRequest));
+	}
+
+	@Test
+	void whenLocksExpireBehindALiveResponseThenTheyAreStillEvicted() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		MutableClock mutableClock = new MutableClock(clock.instant());
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, "", mutableClock);
+		idempotencyService.store("key-1", SCOPE, REQUEST, FoodDTOBuilder.builder().build().toFoodDTO());
+		idempotencyService.findOrLock("key-2", SCOPE, REQUEST);
+
+		mutableClock.advance(Duration.ofSeconds(6));
+		idempotencyService.findOrLock("key-3", SCOPE, REQUEST);
+
+		assertThat(idempotencyService.size(), is(equalTo(2)));
+	}
+
+	@Test
+	void whenMaxEntriesIsReachedThenEldestKeyIsEvicted() {
+		IdempotencyService idempotencyService = new IdempotencyService(2, 60, 5, "", clock);
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+
+		idempotencyService.store("key-1", SCOPE, REQUEST, foodDTO);
+		idempotencyService.store("key-2", SCOPE, REQUEST, foodDTO);
+		idempotencyService.store("key-3", SCOPE, REQUEST, foodDTO);
+
+		assertThat(idempotencyService.size(), is(equalTo(2)));
+		assertThat(idempotencyService.earlyEvictions(), is(equalTo(1L)));
+	}
+
+	@Test
+	void whenAStaleEntryEqualsALiveLockThenOnlyTheStaleOneIsSkipped() throws IdempotentRequestInProgressException, IdempotencyKeyReusedException {
+		IdempotencyService idempotencyService = new IdempotencyService(2, 60, 5, "", clock);
+		idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST);
+		idempotencyService.unlock(IDEMPOTENCY_KEY, SCOPE);
+		idempotencyService.findOrLock("key-2", SCOPE, REQUEST);
+		idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST);
+
+		idempotencyService.findOrLock("key-3", SCOPE, REQUEST);
+
+		assertThrows(IdempotentRequestInProgressException.class, () -> idempotencyService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST));
+		assertThat(idempotencyService.findOrLock("key-2", SCOPE, REQUEST), is(equalTo(Optional.empty())));
+	}
+
+	@Test
+	void whenSnapshotIsWrittenThenItIsRestoredOnStartup(@TempDir File tempDir) throws Exception {
+		String snapshotFile = new File(tempDir, "idempotency.json").getPath();
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+
+		IdempotencyService idempotencyService = new IdempotencyService(10, 60, 5, snapshotFile, clock);
+		idempotencyService.store(IDEMPOTENCY_KEY, SCOPE, REQUEST, expectedFoodDTO);
+		idempotencyService.writeSnapshot();
+
+		IdempotencyService restoredService = new IdempotencyService(10, 60, 5, snapshotFile, clock);
+		restoredService.loadSnapshot();
+
+		assertThat(restoredService.findOrLock(IDEMPOTENCY_KEY, SCOPE, REQUEST), is(Optional.of(expectedFoodDTO)));
+	}
+}
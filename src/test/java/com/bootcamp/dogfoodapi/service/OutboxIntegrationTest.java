@@ -0,0 +1,129 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+import com.bootcamp.dogfoodapi.entity.OutboxDeadLetter;
+import com.bootcamp.dogfoodapi.entity.OutboxEvent;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.InMemoryOutboxSink;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.repository.OutboxDeadLetterRepository;
+import com.bootcamp.dogfoodapi.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+		"dogfood.outbox.sink=memory",
+		"dogfood.outbox.relay-millis=3600000",
+		"spring.datasource.url=jdbc:h2:mem:outbox-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class OutboxIntegrationTest {
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxDeadLetterRepository outboxDeadLetterRepository;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private TransactionOperations transactionOperations;
+
+	@Autowired
+	private InMemoryOutboxSink inMemoryOutboxSink;
+
+	@BeforeEach
+	void setUp() {
+		outboxRelay.relay();
+		inMemoryOutboxSink.clear();
+	}
+
+	@Test
+	void whenFoodChangesThenEventsAreWrittenWithTheChangeAndRelayedInOrder() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().id(null).name("Outbox Food").quantity(10).build().toFoodDTO();
+
+		FoodDTO createdFoodDTO = foodService.createFood(foodDTO);
+		foodService.decrement(createdFoodDTO.getId(), 3);
+		foodService.increment(createdFoodDTO.getId(), 2);
+		foodService.deleteById(createdFoodDTO.getId());
+		assertThat(outboxEventRepository.count(), is(equalTo(4L)));
+
+		outboxRelay.relay();
+
+		List<OutboxMessageDTO> messages = inMemoryOutboxSink.getMessages();
+		assertThat(messages.stream().map(OutboxMessageDTO::getType).toArray(),
+				is(arrayContaining(FoodEventType.CREATED, FoodEventType.STOCK_CHANGED, FoodEventType.DELETED)));
+		assertThat(messages.get(1).getFood().getQuantity(), is(equalTo(9)));
+		assertThat(messages.get(1).getUnitsRemoved(), is(equalTo(3)));
+		assertThat(outboxEventRepository.count(), is(equalTo(0L)));
+	}
+
+	@Test
+	void whenChangeIsRejectedThenNoEventIsWritten() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().id(null).name("Rejected Outbox Food").quantity(1).build().toFoodDTO();
+		FoodDTO createdFoodDTO = foodService.createFood(foodDTO);
+		long eventsAfterCreate = outboxEventRepository.count();
+
+		assertThrows(FoodStockExceededException.class, () -> foodService.decrement(createdFoodDTO.getId(), 5));
+
+		assertThat(outboxEventRepository.count(), is(equalTo(eventsAfterCreate)));
+	}
+
+	@Test
+	void whenPayloadIsUnreadableThenEventIsDeadLetteredWithoutBlockingTheOthers() throws Exception {
+		outboxEventRepository.save(new OutboxEvent(null, 0L, FoodEventType.CREATED, 0, 0, "{not json", Instant.EPOCH));
+		foodService.createFood(FoodDTOBuilder.builder().id(null).name("After Poison Food").quantity(10).build().toFoodDTO());
+
+		outboxRelay.relay();
+
+		assertThat(inMemoryOutboxSink.getMessages().stream().map(message -> message.getFood().getName()).toArray(),
+				is(arrayContaining("After Poison Food")));
+		assertThat(outboxDeadLetterRepository.findAll().stream().map(OutboxDeadLetter::getPayload).toArray(),
+				is(arrayContaining("{not json")));
+		assertThat(outboxEventRepository.count(), is(equalTo(0L)));
+	}
+
+	@Test
+	void whenAnotherRelayHoldsTheBatchThenItIsNotDeliveredTwice() throws Exception {
+		foodService.createFood(FoodDTOBuilder.builder().id(null).name("Locked Outbox Food").quantity(10).build().toFoodDTO());
+		CountDownLatch locked = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> otherRelay = executor.submit(() -> transactionOperations.executeWithoutResult(status -> {
+			List<OutboxEvent> events = outboxEventRepository.findForUpdate(PageRequest.of(0, 100));
+			locked.countDown();
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+			outboxEventRepository.deleteInBatch(events);
+		}));
+		locked.await();
+
+		outboxRelay.relay();
+		otherRelay.get();
+		executor.shutdown();
+
+		assertThat(inMemoryOutboxSink.getMessages(), is(empty()));
+		assertThat(outboxEventRepository.count(), is(equalTo(0L)));
+	}
+}
@@ -0,0 +1,121 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.dto.OutboxMessageDTO;
+import com.bootcamp.dogfoodapi.entity.OutboxDeadLetter;
+import com.bootcamp.dogfoodapi.entity.OutboxEvent;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.event.OutboxSink;
+import com.bootcamp.dogfoodapi.repository.OutboxDeadLetterRepository;
+import com.bootcamp.dogfoodapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+	private static final String PAYLOAD = "{\"id\":1,\"name\":\"Golden Formula\",\"brand\":\"Premier\",\"max\":50,\"quantity\":10,\"type\":\"PREMIUM\"}";
+
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+
+	@Mock
+	private OutboxDeadLetterRepository outboxDeadLetterRepository;
+
+	@Mock
+	private OutboxSink outboxSink;
+
+	private OutboxRelay outboxRelay;
+
+	@BeforeEach
+	void setUp() {
+		outboxRelay = new OutboxRelay(outboxEventRepository, outboxDeadLetterRepository, outboxSink, TransactionOperations.withoutTransaction(), 100,
+				Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+	}
+
+	@Test
+	void whenStockChangesOfSameFoodAreConsecutiveThenTheyAreCompactedKeepingOrder() throws JsonProcessingException {
+		List<OutboxEvent> events = List.of(
+				event(1L, 1L, FoodEventType.CREATED, 10, 0),
+				event(2L, 1L, FoodEventType.STOCK_CHANGED, 0, 3),
+				event(3L, 2L, FoodEventType.STOCK_CHANGED, 5, 0),
+				event(4L, 1L, FoodEventType.STOCK_CHANGED, 2, 1),
+				event(5L, 1L, FoodEventType.DELETED, 0, 0),
+				event(6L, 1L, FoodEventType.STOCK_CHANGED, 0, 1));
+
+		List<OutboxMessageDTO> readMessages = new ArrayList<>();
+		for (OutboxEvent event : events) {
+			readMessages.add(outboxRelay.toMessage(event));
+		}
+
+		List<OutboxMessageDTO> messages = outboxRelay.compact(readMessages);
+
+		assertThat(messages.stream().map(OutboxMessageDTO::getEventId).toArray(), is(arrayContaining(1L, 3L, 4L, 5L, 6L)));
+		assertThat(messages.get(2).getUnitsAdded(), is(equalTo(2)));
+		assertThat(messages.get(2).getUnitsRemoved(), is(equalTo(4)));
+		assertThat(messages.get(2).getCompactedEvents(), is(equalTo(2)));
+		assertThat(messages.get(0).getFood().getName(), is(equalTo("Golden Formula")));
+	}
+
+	@Test
+	void whenSinkDeliversThenBatchIsRemovedFromOutbox() throws IOException {
+		List<OutboxEvent> events = List.of(event(1L, 1L, FoodEventType.CREATED, 10, 0));
+		when(outboxEventRepository.findForUpdate(any(Pageable.class))).thenReturn(events);
+
+		outboxRelay.relay();
+
+		verify(outboxSink).send(any());
+		verify(outboxEventRepository).deleteInBatch(events);
+	}
+
+	@Test
+	void whenSinkFailsThenBatchIsKeptForRetry() throws IOException {
+		List<OutboxEvent> events = List.of(event(1L, 1L, FoodEventType.CREATED, 10, 0));
+		when(outboxEventRepository.findForUpdate(any(Pageable.class))).thenReturn(events);
+		doThrow(new IOException("sink unavailable")).when(outboxSink).send(any());
+
+		outboxRelay.relay();
+
+		verify(outboxEventRepository, never()).deleteInBatch(any());
+	}
+
+	@Test
+	void whenPayloadIsUnreadableThenEventIsDeadLetteredAndTheRestOfTheBatchIsDelivered() throws IOException {
+		OutboxEvent poison = new OutboxEvent(1L, 1L, FoodEventType.CREATED, 10, 0, "{not json", Instant.EPOCH);
+		List<OutboxEvent> events = List.of(poison, event(2L, 2L, FoodEventType.CREATED, 10, 0));
+		when(outboxEventRepository.findForUpdate(any(Pageable.class))).thenReturn(events);
+		ArgumentCaptor<List<OutboxMessageDTO>> sent = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<List<OutboxDeadLetter>> deadLetters = ArgumentCaptor.forClass(List.class);
+
+		outboxRelay.relay();
+
+		verify(outboxSink).send(sent.capture());
+		verify(outboxDeadLetterRepository).saveAll(deadLetters.capture());
+		verify(outboxEventRepository).deleteInBatch(events);
+		assertThat(sent.getValue().stream().map(OutboxMessageDTO::getEventId).toArray(), is(arrayContaining(2L)));
+		assertThat(deadLetters.getValue().stream().map(OutboxDeadLetter::getEventId).toArray(), is(arrayContaining(1L)));
+		assertThat(deadLetters.getValue().get(0).getPayload(), is(equalTo("{not json")));
+	}
+
+	private static OutboxEvent event(Long id, Long foodId, FoodEventType type, int unitsAdded, int unitsRemoved) {
+		return new OutboxEvent(id, foodId, type, unitsAdded, unitsRemoved, PAYLOAD, Instant.EPOCH);
+	}
+}
@@ -0,0 +1,141 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.AvailabilityDTO;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.ReservationDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.exception.FoodStockExceededException;
+import com.bootcamp.dogfoodapi.exception.ReservationNotFoundException;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.utils.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTest {
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private FoodService foodService;
+
+	private FoodMapper foodMapper = FoodMapper.INSTANCE;
+
+	private MutableClock clock;
+
+	private ReservationService reservationService;
+
+	private FoodDTO foodDTO;
+
+	@BeforeEach
+	void setUp() {
+		clock = new MutableClock(Instant.parse("2021-03-30T10:00:00Z"));
+		reservationService = new ReservationService(foodRepository, foodService, new StockHolds(), 64, 1000, clock);
+		foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food food = foodMapper.toModel(foodDTO);
+		lenient().when(foodRepository.findById(foodDTO.getId())).thenReturn(Optional.of(food));
+		lenient().when(foodRepository.findForUpdateById(foodDTO.getId())).thenReturn(Optional.of(food));
+	}
+
+	@Test
+	void whenUnitsAreReservedThenTheyAreHeldWithoutWritingToTheDatabase() throws Exception {
+		reservationService.reserve(foodDTO.getId(), 4, 60);
+
+		AvailabilityDTO availabilityDTO = reservationService.availability(foodDTO.getId());
+
+		assertThat(availabilityDTO.getHeld(), is(equalTo(4)));
+		assertThat(availabilityDTO.getAvailable(), is(equalTo(foodDTO.getQuantity() - 4)));
+		verify(foodRepository, never()).save(any());
+	}
+
+	@Test
+	void whenReservationExceedsAvailableThenAnExceptionShouldBeThrown() throws Exception {
+		reservationService.reserve(foodDTO.getId(), 8, 60);
+
+		assertThrows(FoodStockExceededException.class, () -> reservationService.reserve(foodDTO.getId(), 3, 60));
+	}
+
+	@Test
+	void whenReservationIsCommittedThenStockIsDecrementedAndHoldReleased() throws Exception {
+		ReservationDTO reservationDTO = reservationService.reserve(foodDTO.getId(), 4, 60);
+		when(foodService.decrementReserved(foodDTO.getId(), 4)).thenReturn(foodDTO);
+
+		reservationService.commit(reservationDTO.getId());
+
+		verify(foodService, times(1)).decrementReserved(foodDTO.getId(), 4);
+		assertThat(reservationService.heldOf(foodDTO.getId()), is(equalTo(0)));
+		assertThrows(ReservationNotFoundException.class, () -> reservationService.commit(reservationDTO.getId()));
+	}
+
+	@Test
+	void whenCommitFailsThenReservationAndHoldAreKeptForRetry() throws Exception {
+		ReservationDTO reservationDTO = reservationService.reserve(foodDTO.getId(), 4, 30);
+		when(foodService.decrementReserved(foodDTO.getId(), 4))
+				.thenThrow(new CannotCreateTransactionException("connection lost"))
+				.thenReturn(foodDTO);
+
+		assertThrows(CannotCreateTransactionException.class, () -> reservationService.commit(reservationDTO.getId()));
+
+		assertThat(reservationService.heldOf(foodDTO.getId()), is(equalTo(4)));
+		reservationService.commit(reservationDTO.getId());
+		assertThat(reservationService.heldOf(foodDTO.getId()), is(equalTo(0)));
+	}
+
+	@Test
+	void whenCommitFailsThenReservationExpiresAtItsOriginalDeadline() throws Exception {
+		ReservationDTO reservationDTO = reservationService.reserve(foodDTO.getId(), 4, 30);
+		when(foodService.decrementReserved(foodDTO.getId(), 4)).thenThrow(new CannotCreateTransactionException("connection lost"));
+		assertThrows(CannotCreateTransactionException.class, () -> reservationService.commit(reservationDTO.getId()));
+
+		clock.advance(Duration.ofSeconds(31));
+		reservationService.expireReservations();
+
+		assertThat(reservationService.heldOf(foodDTO.getId()), is(equalTo(0)));
+		assertThrows(ReservationNotFoundException.class, () -> reservationService.release(reservationDTO.getId()));
+	}
+
+	@Test
+	void whenReservationIsReleasedThenUnitsAreAvailableAgain() throws Exception {
+		ReservationDTO reservationDTO = reservationService.reserve(foodDTO.getId(), 4, 60);
+
+		reservationService.release(reservationDTO.getId());
+
+		assertThat(reservationService.heldOf(foodDTO.getId()), is(equalTo(0)));
+	}
+
+	@Test
+	void whenTtlExpiresThenReservationIsReleased() throws Exception {
+		ReservationDTO reservationDTO = reservationService.reserve(foodDTO.getId(), 4, 30);
+
+		clock.advance(Duration.ofSeconds(31));
+		reservationService.expireReservations();
+
+		assertThat(reservationService.heldOf(foodDTO.getId()), is(equalTo(0)));
+		assertThrows(ReservationNotFoundException.class, () -> reservationService.commit(reservationDTO.getId()));
+		verify(foodService, never()).decrementReserved(anyLong(), anyInt());
+	}
+
+	@Test
+	void whenFoodIsNotFoundThenAnExceptionShouldBeThrown() {
+		when(foodRepository.findForUpdateById(2L)).thenReturn(Optional.empty());
+
+		assertThrows(FoodNotFoundException.class, () -> reservationService.reserve(2L, 1, 60));
+	}
+}
@@ -0,0 +1,101 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockBatchServiceTest {
+
+	private static final long INVALID_FOOD_ID = 1L;
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private StockHolds stockHolds;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private FoodMapper foodMapper = FoodMapper.INSTANCE;
+
+	@InjectMocks
+	private StockBatchService stockBatchService;
+
+	@Test
+	void whenDeltasAreAppliedThenEachOneIsCheckedInArrivalOrderAndSavedOnce() {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+
+		List<StockMutationResult> results = stockBatchService.applyAll(expectedFoodDTO.getId(), Arrays.asList(-4, -8, 30, 20));
+
+		assertThat(results.get(0).getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+		assertThat(results.get(0).getFood().getQuantity(), is(equalTo(6)));
+		assertThat(results.get(1).getStatus(), is(equalTo(StockMutationStatus.STOCK_EXCEEDED)));
+		assertThat(results.get(2).getFood().getQuantity(), is(equalTo(36)));
+		assertThat(results.get(3).getStatus(), is(equalTo(StockMutationStatus.STOCK_EXCEEDED)));
+		assertThat(expectedFood.getQuantity(), is(equalTo(36)));
+		verify(foodRepository, times(1)).save(expectedFood);
+	}
+
+	@Test
+	void whenNoDeltaIsAppliedThenNothingIsSaved() {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+
+		List<StockMutationResult> results = stockBatchService.applyAll(expectedFoodDTO.getId(), Arrays.asList(-80, 45));
+
+		assertThat(results, everyItem(hasProperty("status", is(StockMutationStatus.STOCK_EXCEEDED))));
+		verify(foodRepository, never()).save(any());
+	}
+
+	@Test
+	void whenUnitsAreReservedThenDecrementsCannotTakeThemButIncrementsAreApplied() {
+		FoodDTO expectedFoodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		Food expectedFood = foodMapper.toModel(expectedFoodDTO);
+
+		when(foodRepository.findForUpdateById(expectedFoodDTO.getId())).thenReturn(Optional.of(expectedFood));
+		when(stockHolds.heldOf(expectedFoodDTO.getId())).thenReturn(8);
+
+		List<StockMutationResult> results = stockBatchService.applyAll(expectedFoodDTO.getId(), Arrays.asList(-3, 5, -2));
+
+		assertThat(results.get(0).getStatus(), is(equalTo(StockMutationStatus.STOCK_EXCEEDED)));
+		assertThat(results.get(1).getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+		assertThat(results.get(2).getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+		assertThat(expectedFood.getQuantity(), is(equalTo(13)));
+	}
+
+	@Test
+	void whenFoodIsNotFoundThenEveryDeltaIsRejected() {
+		when(foodRepository.findForUpdateById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
+
+		List<StockMutationResult> results = stockBatchService.applyAll(INVALID_FOOD_ID, Arrays.asList(1, -1));
+
+		assertThat(results, hasSize(2));
+		assertThat(results, everyItem(hasProperty("status", is(StockMutationStatus.NOT_FOUND))));
+	}
+}
@@ -0,0 +1,91 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(properties = {
+		"dogfood.coalescing.enabled=true",
+		"dogfood.coalescing.window-micros=100",
+		"spring.datasource.url=jdbc:h2:mem:coalescing-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class StockCoalescingIntegrationTest {
+
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+	@Autowired
+	private FoodService foodService;
+
+	@Autowired
+	private FoodRepository foodRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void whenCoalescedMutationReturnsThenItIsCommittedIndependentlyOfTheCallerTransaction() throws Exception {
+		FoodDTO foodDTO = createFood(10);
+
+		StockMutationResult result = transactionTemplate.execute(status -> {
+			StockMutationResult decrementResult = foodService.tryDecrement(foodDTO.getId(), 4);
+			status.setRollbackOnly();
+			return decrementResult;
+		});
+
+		assertThat(result.getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+		assertThat(foodRepository.findById(foodDTO.getId()).get().getQuantity(), is(equalTo(6)));
+	}
+
+	@Test
+	void whenBatchesOfTheSameFoodOverlapThenNoIncrementIsLost() throws Exception {
+		FoodDTO foodDTO = createFood(0);
+		int callers = 8;
+		int incrementsPerCaller = 5;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> calls = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			calls.add(executor.submit(() -> {
+				start.await();
+				for (int increment = 0; increment < incrementsPerCaller; increment++) {
+					assertThat(foodService.tryIncrement(foodDTO.getId(), 1).getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> call : calls) {
+			call.get();
+		}
+		executor.shutdown();
+
+		assertThat(foodRepository.findById(foodDTO.getId()).get().getQuantity(), is(equalTo(callers * incrementsPerCaller)));
+	}
+
+	private FoodDTO createFood(int quantity) throws Exception {
+		return foodService.createFood(FoodDTOBuilder.builder()
+				.id(null)
+				.name("Coalesced " + SEQUENCE.incrementAndGet())
+				.quantity(quantity)
+				.build()
+				.toFoodDTO());
+	}
+}
@@ -0,0 +1,82 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockCommitCoalescerTest {
+
+	private static final long INVALID_FOOD_ID = 2L;
+
+	@Mock
+	private StockBatchService stockBatchService;
+
+	@Test
+	void whenConcurrentDecrementsArriveInTheWindowThenTheyAreCommittedTogether() throws Exception {
+		StockCommitCoalescer stockCommitCoalescer = new StockCommitCoalescer(stockBatchService, true, 200_000);
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		when(stockBatchService.applyAll(eq(foodDTO.getId()), anyList())).thenAnswer(invocation -> {
+			List<Integer> quantityDeltas = invocation.getArgument(1);
+			List<StockMutationResult> results = new ArrayList<>();
+			quantityDeltas.forEach(delta -> results.add(new StockMutationResult(StockMutationStatus.APPLIED, foodDTO)));
+			return results;
+		});
+
+		int callers = 5;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<StockMutationResult>> results = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return stockCommitCoalescer.apply(foodDTO.getId(), -1);
+			}));
+		}
+		start.countDown();
+		for (Future<StockMutationResult> result : results) {
+			assertThat(result.get().getFood(), is(equalTo(foodDTO)));
+		}
+		executor.shutdown();
+
+		verify(stockBatchService, times(1)).applyAll(foodDTO.getId(), Collections.nCopies(callers, -1));
+	}
+
+	@Test
+	void whenDeltaIsRejectedThenCallerReceivesStockExceeded() {
+		StockCommitCoalescer stockCommitCoalescer = new StockCommitCoalescer(stockBatchService, true, 0);
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		when(stockBatchService.applyAll(foodDTO.getId(), Collections.singletonList(-80)))
+				.thenReturn(Collections.singletonList(new StockMutationResult(StockMutationStatus.STOCK_EXCEEDED, null)));
+
+		assertThat(stockCommitCoalescer.apply(foodDTO.getId(), -80).getStatus(), is(equalTo(StockMutationStatus.STOCK_EXCEEDED)));
+	}
+
+	@Test
+	void whenFoodIsNotFoundThenCallerReceivesNotFound() {
+		StockCommitCoalescer stockCommitCoalescer = new StockCommitCoalescer(stockBatchService, true, 0);
+		when(stockBatchService.applyAll(INVALID_FOOD_ID, Collections.singletonList(10)))
+				.thenReturn(Collections.singletonList(new StockMutationResult(StockMutationStatus.NOT_FOUND, null)));
+
+		assertThat(stockCommitCoalescer.apply(INVALID_FOOD_ID, 10).getStatus(), is(equalTo(StockMutationStatus.NOT_FOUND)));
+	}
+}
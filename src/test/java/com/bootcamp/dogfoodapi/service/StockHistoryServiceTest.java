@@ -0,0 +1,206 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockHistoryDTO;
+import com.bootcamp.dogfoodapi.dto.StockProjectionDTO;
+import com.bootcamp.dogfoodapi.entity.Food;
+import com.bootcamp.dogfoodapi.entity.StockHistoryBucket;
+import com.bootcamp.dogfoodapi.enums.FoodEventType;
+import com.bootcamp.dogfoodapi.enums.HistoryResolution;
+import com.bootcamp.dogfoodapi.event.FoodEvent;
+import com.bootcamp.dogfoodapi.exception.FoodNotFoundException;
+import com.bootcamp.dogfoodapi.mapper.FoodMapper;
+import com.bootcamp.dogfoodapi.repository.FoodRepository;
+import com.bootcamp.dogfoodapi.repository.StockHistoryBucketRepository;
+import com.bootcamp.dogfoodapi.utils.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHistoryServiceTest {
+
+	private static final long INVALID_FOOD_ID = 2L;
+
+	@Mock
+	private FoodRepository foodRepository;
+
+	@Mock
+	private StockHistoryBucketRepository stockHistoryBucketRepository;
+
+	private MutableClock clock;
+
+	private StockHistoryService stockHistoryService;
+
+	private final FoodMapper foodMapper = FoodMapper.INSTANCE;
+
+	@BeforeEach
+	void setUp() {
+		clock = new MutableClock(Instant.parse("2020-06-01T10:00:00Z"));
+		stockHistoryService = new StockHistoryService(foodRepository, stockHistoryBucketRepository, TransactionOperations.withoutTransaction(),
+				120, 168, 90, 168, 10, clock);
+		stockHistoryService.restore();
+	}
+
+	@Test
+	void whenStockChangesThenHistoryIsAnsweredFromTheHourlyRollup() throws FoodNotFoundException {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(20).build().toFoodDTO();
+		when(foodRepository.findById(foodDTO.getId())).thenReturn(Optional.of(foodMapper.toModel(foodDTO)));
+
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 4));
+		clock.advance(Duration.ofMinutes(10));
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 2, 0));
+		clock.advance(Duration.ofHours(1));
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 1));
+
+		StockHistoryDTO history = stockHistoryService.history(foodDTO.getId(), HistoryResolution.HOUR);
+
+		assertThat(history.getBuckets(), hasSize(2));
+		assertThat(history.getBuckets().get(0).getStart(), is(equalTo(Instant.parse("2020-06-01T10:00:00Z"))));
+		assertThat(history.getBuckets().get(0).getUnitsRemoved(), is(equalTo(4)));
+		assertThat(history.getBuckets().get(0).getUnitsAdded(), is(equalTo(2)));
+		assertThat(history.getBuckets().get(1).getUnitsRemoved(), is(equalTo(1)));
+		verify(stockHistoryBucketRepository).findFoodIdsWithBucketsSince(any());
+		verifyNoMoreInteractions(stockHistoryBucketRepository);
+	}
+
+	@Test
+	void whenFoodIsConsumedThenDaysUntilEmptyIsProjectedFromTheConsumptionRate() throws FoodNotFoundException {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(48).build().toFoodDTO();
+		when(foodRepository.findById(foodDTO.getId())).thenReturn(Optional.of(foodMapper.toModel(foodDTO)));
+		for (int hour = 0; hour < 24; hour++) {
+			stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 1));
+			clock.advance(Duration.ofHours(1));
+		}
+
+		StockProjectionDTO projection = stockHistoryService.projection(foodDTO.getId());
+
+		assertThat(projection.getUnitsRemovedPerDay(), is(closeTo(24.0, 0.001)));
+		assertThat(projection.getDaysUntilEmpty(), is(closeTo(2.0, 0.001)));
+	}
+
+	@Test
+	void whenFoodHasNoConsumptionThenDaysUntilEmptyIsNotProjected() throws FoodNotFoundException {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		when(foodRepository.findById(foodDTO.getId())).thenReturn(Optional.of(foodMapper.toModel(foodDTO)));
+
+		StockProjectionDTO projection = stockHistoryService.projection(foodDTO.getId());
+
+		assertThat(projection.getUnitsRemovedPerDay(), is(equalTo(0.0)));
+		assertThat(projection.getDaysUntilEmpty(), is(nullValue()));
+	}
+
+	@Test
+	void whenHistoryIsCompactedThenHourAndDayBucketsAreSaved() {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(7).build().toFoodDTO();
+		when(stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStart(eq(foodDTO.getId()), any(), any()))
+				.thenReturn(Optional.empty());
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 3));
+
+		stockHistoryService.compact();
+		stockHistoryService.compact();
+
+		ArgumentCaptor<StockHistoryBucket> savedBuckets = ArgumentCaptor.forClass(StockHistoryBucket.class);
+		verify(stockHistoryBucketRepository, times(2)).save(savedBuckets.capture());
+		assertThat(savedBuckets.getAllValues().get(0).getResolution(), is(HistoryResolution.HOUR));
+		assertThat(savedBuckets.getAllValues().get(1).getResolution(), is(HistoryResolution.DAY));
+		assertThat(savedBuckets.getAllValues().get(0).getUnitsRemoved(), is(equalTo(3)));
+		assertThat(savedBuckets.getAllValues().get(0).getClosingQuantity(), is(equalTo(7)));
+	}
+
+	@Test
+	void whenCompactionFailsThenBucketsAreSavedOnTheNextRun() {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(7).build().toFoodDTO();
+		when(stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStart(eq(foodDTO.getId()), any(), any()))
+				.thenReturn(Optional.empty());
+		when(stockHistoryBucketRepository.save(any()))
+				.thenThrow(new IllegalStateException("connection lost"))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 3));
+
+		stockHistoryService.compact();
+		stockHistoryService.compact();
+
+		verify(stockHistoryBucketRepository, times(3)).save(any());
+	}
+
+	@Test
+	void whenFoodIsIdleThenItsRollupsAreEvictedAndReloadedWhenRequested() throws FoodNotFoundException {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(7).build().toFoodDTO();
+		when(foodRepository.findById(foodDTO.getId())).thenReturn(Optional.of(foodMapper.toModel(foodDTO)));
+		when(stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStart(eq(foodDTO.getId()), any(), any()))
+				.thenReturn(Optional.empty());
+		when(stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStartGreaterThanEqual(eq(foodDTO.getId()), any(), any()))
+				.thenReturn(List.of(new StockHistoryBucket(1L, foodDTO.getId(), HistoryResolution.HOUR,
+						Instant.parse("2020-06-01T10:00:00Z"), 0, 3, 7)));
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 3));
+		stockHistoryService.compact();
+
+		clock.advance(Duration.ofMinutes(121));
+		stockHistoryService.compact();
+
+		assertThat(stockHistoryService.trackedFoods(), is(equalTo(0)));
+		StockHistoryDTO history = stockHistoryService.history(foodDTO.getId(), HistoryResolution.HOUR);
+		assertThat(history.getBuckets(), hasSize(1));
+		assertThat(history.getBuckets().get(0).getUnitsRemoved(), is(equalTo(3)));
+	}
+
+	@Test
+	void whenFoodHasSavedBucketsAtStartupThenTheyAreLoadedOnceAndTheEventIsAddedOnTop() throws FoodNotFoundException {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().quantity(7).build().toFoodDTO();
+		when(foodRepository.findById(foodDTO.getId())).thenReturn(Optional.of(foodMapper.toModel(foodDTO)));
+		when(stockHistoryBucketRepository.findFoodIdsWithBucketsSince(any())).thenReturn(List.of(foodDTO.getId()));
+		when(stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStartGreaterThanEqual(eq(foodDTO.getId()), any(), any()))
+				.thenAnswer(invocation -> invocation.getArgument(1) == HistoryResolution.HOUR
+						? List.of(new StockHistoryBucket(1L, foodDTO.getId(), HistoryResolution.HOUR, Instant.parse("2020-06-01T10:00:00Z"), 0, 3, 10))
+						: List.of());
+		stockHistoryService.restore();
+
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 0, 2));
+		stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED, foodDTO, 1, 0));
+		StockHistoryDTO history = stockHistoryService.history(foodDTO.getId(), HistoryResolution.HOUR);
+
+		assertThat(history.getBuckets(), hasSize(1));
+		assertThat(history.getBuckets().get(0).getUnitsRemoved(), is(equalTo(5)));
+		assertThat(history.getBuckets().get(0).getUnitsAdded(), is(equalTo(1)));
+		verify(stockHistoryBucketRepository, times(2)).findByFoodIdAndResolutionAndBucketStartGreaterThanEqual(eq(foodDTO.getId()), any(), any());
+	}
+
+	@Test
+	void whenMaxFoodsIsExceededThenTheLeastRecentlyChangedFoodsAreEvicted() {
+		when(stockHistoryBucketRepository.findByFoodIdAndResolutionAndBucketStart(any(), any(), any()))
+				.thenReturn(Optional.empty());
+		for (long id = 1; id <= 12; id++) {
+			stockHistoryService.onFoodEvent(new FoodEvent(FoodEventType.STOCK_CHANGED,
+					FoodDTOBuilder.builder().id(id).build().toFoodDTO(), 0, 1));
+			clock.advance(Duration.ofMinutes(1));
+		}
+
+		stockHistoryService.compact();
+
+		assertThat(stockHistoryService.trackedFoods(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenHistoryOfInvalidFoodIsRequestedThenAnExceptionIsThrown() {
+		when(foodRepository.findById(INVALID_FOOD_ID)).thenReturn(Optional.empty());
+
+		assertThrows(FoodNotFoundException.class, () -> stockHistoryService.history(INVALID_FOOD_ID, HistoryResolution.DAY));
+	}
+}
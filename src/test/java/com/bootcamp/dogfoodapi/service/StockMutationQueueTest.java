@@ -0,0 +1,144 @@
+package com.bootcamp.dogfoodapi.service;
+
+import com.bootcamp.dogfoodapi.builder.FoodDTOBuilder;
+import com.bootcamp.dogfoodapi.dto.FoodDTO;
+import com.bootcamp.dogfoodapi.dto.StockMutationResult;
+import com.bootcamp.dogfoodapi.dto.TicketDTO;
+import com.bootcamp.dogfoodapi.enums.StockMutationStatus;
+import com.bootcamp.dogfoodapi.exception.StockMutationQueueFullException;
+import com.bootcamp.dogfoodapi.exception.TicketNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockMutationQueueTest {
+
+	@Mock
+	private StockBatchService stockBatchService;
+
+	private StockMutationQueue stockMutationQueue;
+
+	@BeforeEach
+	void setUp() {
+		stockMutationQueue = new StockMutationQueue(stockBatchService, 2, 100, 16, 100, 5000);
+		stockMutationQueue.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		stockMutationQueue.stop();
+	}
+
+	@Test
+	void whenMutationIsSubmittedThenTicketIsCompletedWithItsOutcome() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		when(stockBatchService.applyAll(eq(foodDTO.getId()), anyList()))
+				.thenAnswer(invocation -> {
+					List<Integer> quantityDeltas = invocation.getArgument(1);
+					List<StockMutationResult> results = new ArrayList<>();
+					quantityDeltas.forEach(delta -> results.add(new StockMutationResult(StockMutationStatus.APPLIED, foodDTO)));
+					return results;
+				});
+
+		TicketDTO pendingTicket = stockMutationQueue.submit(foodDTO.getId(), -2);
+
+		assertThat(pendingTicket.getQuantityDelta(), is(equalTo(-2)));
+		assertThat(awaitTicket(pendingTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+	}
+
+	@Test
+	void whenBatchFailsThenTicketIsMarkedAsFailed() throws Exception {
+		when(stockBatchService.applyAll(eq(1L), anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+		TicketDTO pendingTicket = stockMutationQueue.submit(1L, 5);
+
+		assertThat(awaitTicket(pendingTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.FAILED)));
+	}
+
+	@Test
+	void whenPartitionIsFullThenMutationIsRejected() throws Exception {
+		StockMutationQueue stoppedQueue = new StockMutationQueue(stockBatchService, 1, 1, 16, 100, 0);
+
+		TicketDTO pendingTicket = stoppedQueue.submit(1L, 5);
+
+		assertThrows(StockMutationQueueFullException.class, () -> stoppedQueue.submit(1L, 5));
+		assertThat(stoppedQueue.findTicket(pendingTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.PENDING)));
+	}
+
+	@Test
+	void whenMaxTicketsIsReachedThenOnlyCompletedTicketsAreEvicted() throws Exception {
+		StockMutationQueue stoppedQueue = new StockMutationQueue(stockBatchService, 1, 10, 16, 1, 0);
+
+		TicketDTO firstTicket = stoppedQueue.submit(1L, 5);
+		TicketDTO secondTicket = stoppedQueue.submit(1L, 5);
+
+		assertThat(stoppedQueue.findTicket(firstTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.PENDING)));
+		assertThat(stoppedQueue.findTicket(secondTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.PENDING)));
+	}
+
+	@Test
+	void whenQueueIsStoppedThenAcceptedMutationsAreAppliedAndNewOnesRejected() throws Exception {
+		FoodDTO foodDTO = FoodDTOBuilder.builder().build().toFoodDTO();
+		when(stockBatchService.applyAll(eq(foodDTO.getId()), anyList()))
+				.thenAnswer(invocation -> {
+					Thread.sleep(20);
+					List<StockMutationResult> results = new ArrayList<>();
+					invocation.<List<Integer>>getArgument(1).forEach(delta -> results.add(new StockMutationResult(StockMutationStatus.APPLIED, foodDTO)));
+					return results;
+				});
+		List<TicketDTO> pendingTickets = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			pendingTickets.add(stockMutationQueue.submit(foodDTO.getId(), 1));
+		}
+
+		stockMutationQueue.stop();
+
+		for (TicketDTO pendingTicket : pendingTickets) {
+			assertThat(stockMutationQueue.findTicket(pendingTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.APPLIED)));
+		}
+		assertThrows(StockMutationQueueFullException.class, () -> stockMutationQueue.submit(foodDTO.getId(), 1));
+	}
+
+	@Test
+	void whenConsumersDoNotFinishBeforeShutdownThenLeftoverTicketsAreFailed() throws Exception {
+		StockMutationQueue stoppedQueue = new StockMutationQueue(stockBatchService, 2, 10, 16, 100, 0);
+		TicketDTO firstTicket = stoppedQueue.submit(1L, 5);
+		TicketDTO secondTicket = stoppedQueue.submit(2L, -5);
+
+		stoppedQueue.stop();
+
+		assertThat(stoppedQueue.findTicket(firstTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.FAILED)));
+		assertThat(stoppedQueue.findTicket(secondTicket.getTicket()).getStatus(), is(equalTo(StockMutationStatus.FAILED)));
+	}
+
+	@Test
+	void whenUnknownTicketIsGivenThenAnExceptionShouldBeThrown() {
+		assertThrows(TicketNotFoundException.class, () -> stockMutationQueue.findTicket("unknown"));
+	}
+
+	private TicketDTO awaitTicket(String ticket) throws Exception {
+		for (int attempt = 0; attempt < 200; attempt++) {
+			TicketDTO foundTicket = stockMutationQueue.findTicket(ticket);
+			if (foundTicket.getStatus() != StockMutationStatus.PENDING) {
+				return foundTicket;
+			}
+			Thread.sleep(10);
+		}
+		return stockMutationQueue.findTicket(ticket);
+	}
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CountMinSketchTest {
+
+	@Test
+	void whenKeysAreIncrementedThenEstimatesAreNeverBelowTheRealCount() {
+		CountMinSketch sketch = new CountMinSketch(64, 1_000_000);
+		for (long key = 0; key < 200; key++) {
+			for (int access = 0; access <= key % 10; access++) {
+				sketch.increment(key);
+			}
+		}
+
+		for (long key = 0; key < 200; key++) {
+			assertThat(sketch.estimate(key), is(greaterThanOrEqualTo((int) (key % 10) + 1)));
+		}
+	}
+
+	@Test
+	void whenAKeyIsHotThenItsEstimateIsHigherThanColdKeys() {
+		CountMinSketch sketch = new CountMinSketch(256, 1_000_000);
+		for (int access = 0; access < 100; access++) {
+			sketch.increment(42L);
+		}
+		sketch.increment(7L);
+
+		assertThat(sketch.estimate(42L), is(equalTo(100)));
+		assertThat(sketch.estimate(7L), is(lessThan(100)));
+	}
+
+	@Test
+	void whenSampleSizeIsReachedThenCountersAreHalved() {
+		CountMinSketch sketch = new CountMinSketch(256, 100);
+		sketch.add(42L, 60);
+
+		sketch.add(7L, 40);
+
+		assertThat(sketch.estimate(42L), is(equalTo(30)));
+		assertThat(sketch.estimate(7L), is(equalTo(20)));
+	}
+}
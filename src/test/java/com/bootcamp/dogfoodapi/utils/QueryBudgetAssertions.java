@@ -0,0 +1,50 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import com.bootcamp.dogfoodapi.config.QueryBudgetInterceptor;
+import com.bootcamp.dogfoodapi.config.QueryCounter;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *  Asserções de número de statements SQL para os testes.
+ *
+ *  Com MockMvc: .andExpect(withinQueryBudget()) compara com o @QueryBudget do endpoint e
+ *  .andExpect(queryCount(n)) trava a contagem exata. Fora do MVC, countQueries(() -> ...).
+ *
+ *  Contam os statements executados na thread da requisição (veja QueryCounter): os testes que as
+ *  usam devem rodar com dogfood.coalescing.enabled=false e não valem para os endpoints assíncronos.
+ * */
+public class QueryBudgetAssertions {
+
+	public static ResultMatcher withinQueryBudget() {
+		return result -> {
+			Integer budget = (Integer) result.getRequest().getAttribute(QueryBudgetInterceptor.QUERY_BUDGET_ATTRIBUTE);
+			assertThat("endpoint without @QueryBudget", budget, is(notNullValue()));
+			assertThat("SQL statements of " + result.getRequest().getRequestURI(), queryCountOf(result.getRequest().getAttribute(
+					QueryBudgetInterceptor.QUERY_COUNT_ATTRIBUTE)), is(lessThanOrEqualTo(budget)));
+		};
+	}
+
+	public static ResultMatcher queryCount(int expected) {
+		return result -> assertThat("SQL statements of " + result.getRequest().getRequestURI(), queryCountOf(result.getRequest().getAttribute(
+				QueryBudgetInterceptor.QUERY_COUNT_ATTRIBUTE)), is(equalTo(expected)));
+	}
+
+	public static int countQueries(Executable executable) throws Throwable {
+		QueryCounter.start();
+		try {
+			executable.execute();
+			return QueryCounter.current();
+		} finally {
+			QueryCounter.stop();
+		}
+	}
+
+	private static int queryCountOf(Object attribute) {
+		assertThat("query counting is disabled", attribute, is(notNullValue()));
+		return (Integer) attribute;
+	}
+}
@@ -0,0 +1,93 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RollupRingTest {
+
+	private static final long MINUTE = 60_000L;
+
+	@Test
+	void whenMutationsFallInTheSameBucketThenTheyAreSummed() {
+		RollupRing rollupRing = new RollupRing(MINUTE, 10);
+
+		rollupRing.record(5 * MINUTE + 1_000, 0, 2, 8);
+		rollupRing.record(5 * MINUTE + 30_000, 3, 1, 10);
+
+		List<RollupRing.Bucket> buckets = rollupRing.buckets(0, 10 * MINUTE);
+		assertThat(buckets, hasSize(1));
+		assertThat(buckets.get(0).getStartMillis(), is(equalTo(5 * MINUTE)));
+		assertThat(buckets.get(0).getUnitsAdded(), is(equalTo(3)));
+		assertThat(buckets.get(0).getUnitsRemoved(), is(equalTo(3)));
+		assertThat(buckets.get(0).getClosingQuantity(), is(equalTo(10)));
+	}
+
+	@Test
+	void whenTimeWrapsAroundTheRingThenOldBucketIsReplaced() {
+		RollupRing rollupRing = new RollupRing(MINUTE, 10);
+
+		rollupRing.record(2 * MINUTE, 0, 5, 5);
+		rollupRing.record(12 * MINUTE, 0, 1, 4);
+
+		List<RollupRing.Bucket> buckets = rollupRing.buckets(0, 12 * MINUTE);
+		assertThat(buckets, hasSize(1));
+		assertThat(buckets.get(0).getStartMillis(), is(equalTo(12 * MINUTE)));
+		assertThat(buckets.get(0).getUnitsRemoved(), is(equalTo(1)));
+	}
+
+	@Test
+	void whenDirtyBucketsAreDrainedThenOnlyChangedBucketsAreReturnedOnce() {
+		RollupRing rollupRing = new RollupRing(MINUTE, 10);
+		rollupRing.record(MINUTE, 0, 1, 9);
+		rollupRing.record(3 * MINUTE, 0, 1, 8);
+
+		assertThat(rollupRing.drainDirty(), hasSize(2));
+		assertThat(rollupRing.drainDirty(), is(empty()));
+
+		rollupRing.record(3 * MINUTE + 1, 0, 1, 7);
+		assertThat(rollupRing.drainDirty(), hasSize(1));
+	}
+
+	@Test
+	void whenDrainedBucketsAreMarkedDirtyAgainThenTheyAreDrainedAgain() {
+		RollupRing rollupRing = new RollupRing(MINUTE, 10);
+		rollupRing.record(MINUTE, 0, 1, 9);
+
+		rollupRing.markDirty(rollupRing.drainDirty());
+
+		assertThat(rollupRing.isDirty(), is(true));
+		assertThat(rollupRing.drainDirty(), hasSize(1));
+	}
+
+	@Test
+	void whenSavedBucketIsRestoredTwiceThenTheSlotIsOverwrittenNotSummed() {
+		RollupRing rollupRing = new RollupRing(MINUTE, 10);
+		RollupRing.Bucket saved = new RollupRing.Bucket(2 * MINUTE, 1, 4, 6);
+
+		rollupRing.restore(saved);
+		rollupRing.restore(saved);
+
+		List<RollupRing.Bucket> buckets = rollupRing.buckets(0, 10 * MINUTE);
+		assertThat(buckets, hasSize(1));
+		assertThat(buckets.get(0).getUnitsAdded(), is(equalTo(1)));
+		assertThat(buckets.get(0).getUnitsRemoved(), is(equalTo(4)));
+		assertThat(buckets.get(0).getClosingQuantity(), is(equalTo(6)));
+		assertThat(rollupRing.isDirty(), is(false));
+	}
+
+	@Test
+	void whenSlotHasUnsavedChangesThenRestoreKeepsThem() {
+		RollupRing rollupRing = new RollupRing(MINUTE, 10);
+		rollupRing.record(2 * MINUTE + 1, 0, 2, 9);
+
+		rollupRing.restore(new RollupRing.Bucket(2 * MINUTE, 1, 4, 6));
+
+		List<RollupRing.Bucket> buckets = rollupRing.buckets(0, 10 * MINUTE);
+		assertThat(buckets.get(0).getUnitsRemoved(), is(equalTo(2)));
+		assertThat(buckets.get(0).getClosingQuantity(), is(equalTo(9)));
+	}
+}
@@ -0,0 +1,49 @@
+package com.bootcamp.dogfoodapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TimerWheelTest {
+
+	@Test
+	void whenDeadlineIsReachedThenItemExpires() {
+		TimerWheel<String> timerWheel = new TimerWheel<>(8, 100, 0);
+		timerWheel.schedule("first", 250);
+		timerWheel.schedule("second", 450);
+
+		assertThat(timerWheel.advance(200), is(empty()));
+		assertThat(timerWheel.advance(300), contains("first"));
+		assertThat(timerWheel.advance(500), contains("second"));
+	}
+
+	@Test
+	void whenDeadlineIsBeyondOneRoundThenItemExpiresOnlyOnItsRound() {
+		TimerWheel<String> timerWheel = new TimerWheel<>(4, 100, 0);
+		timerWheel.schedule("late", 900);
+
+		assertThat(timerWheel.advance(500), is(empty()));
+		assertThat(timerWheel.advance(900), contains("late"));
+	}
+
+	@Test
+	void whenTimeoutIsCancelledThenItemDoesNotExpire() {
+		TimerWheel<String> timerWheel = new TimerWheel<>(8, 100, 0);
+		TimerWheel.Timeout<String> timeout = timerWheel.schedule("cancelled", 250);
+
+		assertThat(timerWheel.cancel(timeout), is(true));
+		assertThat(timerWheel.advance(1000), is(empty()));
+	}
+
+	@Test
+	void whenAdvanceSkipsManyRoundsThenEveryDueItemExpires() {
+		TimerWheel<String> timerWheel = new TimerWheel<>(4, 100, 0);
+		timerWheel.schedule("first", 100);
+		timerWheel.schedule("second", 1500);
+		timerWheel.schedule("third", 9000);
+
+		assertThat(timerWheel.advance(5000), containsInAnyOrder("first", "second"));
+		assertThat(timerWheel.advance(9000), contains("third"));
+	}
+}